@@ -0,0 +1,72 @@
+package org.example.bench;
+
+import org.example.marketdata.KisCipher;
+import org.example.marketdata.KisDecryptContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 암호화 채널 content 복호화 한 건당 비용: 매번 Cipher 생성(KisCipher) vs 캐시된 컨텍스트(KisDecryptContext).
+ * KIS 연결 없이 재현할 수 있도록 녹화 프레임의 레코드를 고정 key/iv 로 암호화해 입력으로 쓴다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DecryptBenchmark {
+
+    // KIS 가 구독 응답으로 내려주는 형식과 같은 hex 문자열 (AES-256 key / 16byte iv)
+    static final String KEY_HEX = "6d6f6f6e65792d62656e63686d61726b2d6165732d3235362d6b65792d303031";
+    static final String IV_HEX = "6d6f6f6e65792d62656e63682d697630";
+
+    private byte[] key;
+    private byte[] iv;
+    private String[] contents;
+    private KisDecryptContext context;
+    private int next;
+
+    @Setup
+    public void setup() throws Exception {
+        key = KisCipher.hexToBytes(KEY_HEX);
+        iv = KisCipher.hexToBytes(IV_HEX);
+
+        Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key, "AES"), new IvParameterSpec(iv));
+
+        List<String> frames = Fixtures.lines("frames/h0stcnt0.txt");
+        contents = new String[frames.size()];
+        for (int i = 0; i < contents.length; i++) {
+            // 헤더(암호화여부|TR_ID|건수|)를 뗀 레코드 본문만 암호화
+            String frame = frames.get(i);
+            String body = frame.substring(frame.indexOf('|', frame.indexOf('|', frame.indexOf('|') + 1) + 1) + 1);
+            contents[i] = Base64.getEncoder().encodeToString(cipher.doFinal(body.getBytes(StandardCharsets.UTF_8)));
+        }
+        context = new KisDecryptContext(key, iv);
+    }
+
+    @Benchmark
+    public String decryptBase64() throws Exception {
+        String content = contents[next];
+        next = (next + 1) % contents.length;
+        return KisCipher.decryptBase64(content, iv, key);
+    }
+
+    @Benchmark
+    public int cachedContext() throws Exception {
+        String content = contents[next];
+        next = (next + 1) % contents.length;
+        return context.decrypt(content).length();
+    }
+}
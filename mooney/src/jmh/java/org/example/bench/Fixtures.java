@@ -0,0 +1,33 @@
+package org.example.bench;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/** src/jmh/resources 아래 녹화 프레임 파일 로더 ('#' 으로 시작하는 줄은 주석) */
+final class Fixtures {
+
+    private Fixtures() {}
+
+    static List<String> lines(String resource) {
+        InputStream in = Fixtures.class.getClassLoader().getResourceAsStream(resource);
+        if (in == null) throw new IllegalStateException("fixture 없음: " + resource);
+
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) continue;
+                lines.add(line);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return lines;
+    }
+}
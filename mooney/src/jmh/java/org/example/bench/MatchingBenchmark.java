@@ -0,0 +1,164 @@
+package org.example.bench;
+
+import org.example.entity.Account;
+import org.example.entity.Offer;
+import org.example.entity.OfferStatus;
+import org.example.entity.Stock;
+import org.example.entity.User;
+import org.example.matching.Fill;
+import org.example.matching.OrderBook;
+import org.example.repository.AccountRepository;
+import org.example.repository.OfferRepository;
+import org.example.repository.StockRepository;
+import org.example.repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 체결 틱 한 건의 매칭 비용: 기존 DB 스캔 방식 vs 메모리 호가창.
+ * 한 종목(유동성 높은 종목 가정)에 PENDING 주문 1k/10k/100k 건을 H2 에 적재해 두고 측정한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MatchingBenchmark {
+
+    static final String STOCK_CODE = "005930";
+    static final int BASE_PRICE = 70_000;
+    static final int TICK_SIZE = 100;
+    static final int LEVELS = 200;
+
+    @Param({"1000", "10000", "100000"})
+    public int pendingOffers;
+
+    private ConfigurableApplicationContext context;
+    private OfferRepository offerRepository;
+    private OrderBook book;
+    private int next;
+
+    @Configuration
+    @ImportAutoConfiguration({
+            DataSourceAutoConfiguration.class,
+            HibernateJpaAutoConfiguration.class,
+            TransactionAutoConfiguration.class,
+            JdbcTemplateAutoConfiguration.class
+    })
+    @EntityScan("org.example.entity")
+    @EnableJpaRepositories("org.example.repository")
+    static class BenchConfig {
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(BenchConfig.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:bench;MODE=MySQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.open-in-view=false",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN")
+                .run();
+        offerRepository = context.getBean(OfferRepository.class);
+        seed();
+
+        book = new OrderBook(STOCK_CODE);
+        for (Offer offer : offerRepository.findPendingWithStock(OfferStatus.PENDING)) {
+            book.add(offer.getOfferId(), offer.getAccount().getAccountId(),
+                    offer.getOfferSide(), offer.getOfferPrice(), offer.getOfferCnt());
+        }
+    }
+
+    private void seed() {
+        User user = context.getBean(UserRepository.class).save(User.builder().build());
+        Account account = context.getBean(AccountRepository.class)
+                .save(Account.builder().user(user).cashBalance(1_000_000_000).build());
+        Stock stock = context.getBean(StockRepository.class)
+                .save(Stock.builder().stockCode(STOCK_CODE).stockName("삼성전자").build());
+
+        TransactionTemplate tx = context.getBean(TransactionTemplate.class);
+        List<Offer> chunk = new ArrayList<>(1000);
+        for (int i = 0; i < pendingOffers; i++) {
+            chunk.add(Offer.builder()
+                    .stock(stock)
+                    .account(account)
+                    .offerPrice(seedPrice(i))
+                    .offerCnt(1 + i % 10)
+                    .offerSide(i % 2 == 0 ? "BUY" : "SELL")
+                    .offerStatus(OfferStatus.PENDING)
+                    .build());
+            if (chunk.size() == 1000 || i == pendingOffers - 1) {
+                List<Offer> batch = List.copyOf(chunk);
+                tx.executeWithoutResult(status -> offerRepository.saveAll(batch));
+                chunk.clear();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // 교차하지 않는 호가창: 매수는 기준가 아래, 매도는 기준가 위로 LEVELS 개씩
+    private static long seedPrice(int i) {
+        long offset = (long) (1 + (i / 2) % LEVELS) * TICK_SIZE;
+        return i % 2 == 0 ? BASE_PRICE - offset : BASE_PRICE + offset;
+    }
+
+    private long nextTickPrice() {
+        next = (next + 1) % (2 * LEVELS);
+        return seedPrice(next);
+    }
+
+    /** 교체 전 matchOrders: 틱마다 PENDING 주문 전체를 조회/하이드레이션 후 선형 비교 */
+    @Benchmark
+    public int legacyDbScan() {
+        long price = nextTickPrice();
+        int matched = 0;
+        for (Offer offer : offerRepository.findByStock_StockCodeAndOfferStatusOrderByOfferIdAsc(STOCK_CODE, OfferStatus.PENDING)) {
+            if (offer.getOfferPrice() == price) matched++;
+        }
+        return matched;
+    }
+
+    /** 대부분의 틱: 최우선 매수/매도호가 사이라 교차하는 주문이 없음 */
+    @Benchmark
+    public int orderBookMiss() {
+        return book.match(BASE_PRICE, 1_000).size();
+    }
+
+    /** 최우선 매수호가 레벨 하나를 체결시키고, 다음 측정을 위해 같은 주문을 다시 걸어 둠 */
+    @Benchmark
+    public int orderBookFill() {
+        List<Fill> fills = book.match(BASE_PRICE - TICK_SIZE, Long.MAX_VALUE);
+        for (Fill fill : fills) {
+            book.add(fill.offerId(), fill.accountId(), fill.side(), fill.limitPrice(), fill.qty());
+        }
+        return fills.size();
+    }
+}
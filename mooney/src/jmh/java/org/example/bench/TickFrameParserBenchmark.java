@@ -0,0 +1,98 @@
+package org.example.bench;
+
+import org.example.marketdata.TickFrameParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * H0STCNT0 프레임 파싱: 기존 split 기반 경로 vs {@link TickFrameParser}.
+ * 녹화 프레임 전체(frames/h0stcnt0.txt)를 한 번 훑는 시간을 잰다. -prof gc 로 할당량 비교.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TickFrameParserBenchmark {
+
+    private String[] frames;
+    private TickFrameParser parser;
+
+    // 결과를 누적해 JIT 가 파싱을 제거하지 못하게 함
+    private long priceSum;
+    private int codeHash;
+    private final TickFrameParser.TickSink sink = (stockCode, time, price, volume) -> {
+        priceSum += price;
+        codeHash ^= System.identityHashCode(stockCode);
+    };
+
+    @Setup
+    public void setup() {
+        frames = Fixtures.lines("frames/h0stcnt0.txt").toArray(new String[0]);
+        parser = new TickFrameParser();
+    }
+
+    @Benchmark
+    public long splitBased() {
+        priceSum = 0;
+        for (String frame : frames) {
+            legacyHandlePipeFrame(frame);
+        }
+        return priceSum;
+    }
+
+    @Benchmark
+    public long streaming() {
+        priceSum = 0;
+        for (String frame : frames) {
+            parser.parseFrame(frame, sink);
+        }
+        return priceSum + codeHash;
+    }
+
+    /** 교체 전 StockWebSocketClient.handlePipeFrame 의 파싱 부분 (출력/매칭 제외) */
+    private void legacyHandlePipeFrame(String frame) {
+        if (frame == null || frame.isBlank()) return;
+
+        String[] f = frame.split("\\|", -1);
+        if (f.length < 4) return;
+
+        int chIdx;
+        if ("H0STCNT0".equalsIgnoreCase(f[1].trim())) chIdx = 1;
+        else if ("H0STCNT0".equalsIgnoreCase(f[0].trim())) chIdx = 0;
+        else return;
+
+        final int countIdx = chIdx + 1;
+        final int recStart = chIdx + 2;
+
+        int count = parseIntSafe(f[countIdx]);
+        if (count <= 0) {
+            count = Math.max(0, f.length - recStart);
+        }
+
+        for (int i = 0; i < count; i++) {
+            int idx = recStart + i;
+            if (idx >= f.length) break;
+            String rec = f[idx];
+            if (rec == null || rec.isBlank()) continue;
+
+            String[] a = rec.split("\\^", -1);
+            if (a.length < 3) continue;
+
+            String stockCode = a[0].trim();
+            int price = parseIntSafe(a[2]);
+            if (!stockCode.isEmpty() && price > 0) {
+                sink.onTick(stockCode, 0, price, 0);
+            }
+        }
+    }
+
+    private static int parseIntSafe(String s) {
+        try { return Integer.parseInt(s.trim()); } catch (Exception e) { return 0; }
+    }
+}
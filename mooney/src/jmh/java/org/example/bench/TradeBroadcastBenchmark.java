@@ -0,0 +1,98 @@
+package org.example.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.TradeWebSocketHandler;
+import org.example.entity.Stock;
+import org.example.repository.StockRepository;
+import org.example.service.StockCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TradeWebSocketHandler.sendTrade 의 시세 스레드 쪽 비용 (구독 인덱스 조회 + JSON 직렬화 + 대기열 적재).
+ * 가짜 세션들을 붙여 두고 flush 는 돌리지 않으므로 네트워크 전송은 빠진다.
+ * 비교용으로 Jackson 직렬화도 함께 측정.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TradeBroadcastBenchmark {
+
+    private static final String[] CODES = {"005930", "000660", "035420", "005380", "0037T0", "373220"};
+
+    @Param({"1", "100"})
+    public int sessions;
+
+    private TradeWebSocketHandler handler;
+    private ObjectMapper objectMapper;
+    private int next;
+
+    @Setup
+    public void setup() throws Exception {
+        StockCache stockCache = new StockCache(stockRepository());
+        stockCache.refresh();
+        handler = new TradeWebSocketHandler(stockCache, new SimpleMeterRegistry());
+        Field max = TradeWebSocketHandler.class.getDeclaredField("maxSymbolsPerSession");
+        max.setAccessible(true);
+        max.setInt(handler, CODES.length);
+        objectMapper = new ObjectMapper();
+
+        // 세션 절반만 앞 종목 3개를 구독 → 구독자 없는 종목 틱도 섞임
+        for (int i = 0; i < sessions; i++) {
+            WebSocketSession session = fakeSession("bench-" + i);
+            handler.afterConnectionEstablished(session);
+            String stocks = i % 2 == 0 ? "\"005930\",\"000660\",\"035420\"" : "\"005930\"";
+            handler.handleMessage(session, new TextMessage("{\"type\":\"subscribe\",\"stocks\":[" + stocks + "]}"));
+        }
+    }
+
+    // 구독 검증용 종목 기준정보 (findAll 만 응답)
+    private static StockRepository stockRepository() {
+        List<Stock> stocks = new ArrayList<>();
+        for (int i = 0; i < CODES.length; i++) {
+            stocks.add(Stock.builder().stockId(i + 1L).stockCode(CODES[i]).stockName(CODES[i]).build());
+        }
+        return (StockRepository) Proxy.newProxyInstance(StockRepository.class.getClassLoader(),
+                new Class<?>[]{StockRepository.class}, (proxy, method, args) ->
+                        "findAll".equals(method.getName()) ? stocks : null);
+    }
+
+    private static WebSocketSession fakeSession(String id) {
+        return (WebSocketSession) Proxy.newProxyInstance(WebSocketSession.class.getClassLoader(),
+                new Class<?>[]{WebSocketSession.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getId" -> id;
+                    case "isOpen" -> true;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> null;
+                });
+    }
+
+    @Benchmark
+    public void sendTrade() {
+        int i = next++ & 0xFFFF;
+        handler.sendTrade(CODES[i % CODES.length], 70_000 + i);
+    }
+
+    @Benchmark
+    public String jackson() throws Exception {
+        int i = next++ & 0xFFFF;
+        return objectMapper.writeValueAsString(Map.of("stock", CODES[i % CODES.length], "price", 70_000 + i));
+    }
+}
@@ -0,0 +1,17 @@
+package org.example;
+
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class FlywayConfig {
+
+    // ddl-auto 로 이미 만들어진 DB 는 V1(원래 ddl-auto 스키마)을 건너뛰고 V1_1 의 변환부터 적용
+    @Bean
+    public FlywayConfigurationCustomizer baselineCustomizer() {
+        return configuration -> configuration
+                .baselineOnMigrate(true)
+                .baselineVersion("1");
+    }
+}
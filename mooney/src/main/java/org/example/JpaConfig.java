@@ -0,0 +1,21 @@
+package org.example;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JpaConfig {
+
+    // 주문 배치 저장 시 insert 를 JDBC 배치로 묶음 (MySQL 은 URL 에 rewriteBatchedStatements=true 권장)
+    @Bean
+    public HibernatePropertiesCustomizer jdbcBatchingCustomizer(
+            @Value("${jpa.jdbc.batch-size:500}") int batchSize) {
+        return props -> {
+            props.put("hibernate.jdbc.batch_size", batchSize);
+            props.put("hibernate.order_inserts", true);
+            props.put("hibernate.order_updates", true);
+        };
+    }
+}
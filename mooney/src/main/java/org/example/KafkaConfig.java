@@ -0,0 +1,39 @@
+package org.example;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.example.service.OrderPartitionRebalanceListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
+
+@Configuration
+public class KafkaConfig {
+
+    public static final String ORDER_REQUEST_TOPIC = "order-request";
+
+    // 파티션 수 = 종목 단위 병렬 처리의 상한 (브로커 3대 기준 복제 3)
+    @Bean
+    public NewTopic orderRequestTopic(@Value("${kafka.order-request.partitions:6}") int partitions,
+                                      @Value("${kafka.order-request.replicas:3}") short replicas) {
+        return TopicBuilder.name(ORDER_REQUEST_TOPIC)
+                .partitions(partitions)
+                .replicas(replicas)
+                .build();
+    }
+
+    // 기본 팩토리에 리밸런스 리스너만 추가 (파티션 배정에 따라 매칭 엔진 호가창 적재/폐기)
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> kafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory,
+            OrderPartitionRebalanceListener rebalanceListener) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.getContainerProperties().setConsumerRebalanceListener(rebalanceListener);
+        return factory;
+    }
+}
@@ -0,0 +1,42 @@
+package org.example;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 처리 단계별 로거. logger 이름이 mooney.단계 이므로 logging.level.mooney.feed=DEBUG 처럼 단계마다 켜고 끈다.
+ * 틱/주문처럼 건수가 많은 이벤트는 sampled() 가 true 일 때만 남겨 N 건에 한 건만 출력한다.
+ * 실제 출력은 logback-spring.xml 의 비동기 appender 가 맡으므로 호출 스레드는 큐에 넣고 바로 돌아간다.
+ * 같은 단계를 여러 곳에서 만들 수 있지만 표본 주기는 하나여야 한다 (다르면 생성 시 예외: 단계 이름을 나눌 것).
+ */
+public final class StageLog {
+
+    // 단계 → 표본 주기
+    private static final Map<String, Long> SAMPLING = new ConcurrentHashMap<>();
+
+    private final Logger log;
+    private final long sampleEvery;
+    private final AtomicLong seen = new AtomicLong();
+
+    public StageLog(String stage, long sampleEvery) {
+        this.log = LoggerFactory.getLogger("mooney." + stage);
+        this.sampleEvery = Math.max(1, sampleEvery);
+        Long existing = SAMPLING.putIfAbsent(stage, this.sampleEvery);
+        if (existing != null && existing != this.sampleEvery) {
+            throw new IllegalStateException("mooney." + stage + " 표본 주기 충돌: " + existing + " / " + this.sampleEvery);
+        }
+    }
+
+    public Logger log() {
+        return log;
+    }
+
+    // 디버그가 켜져 있고 이번 건이 표본이면 true (꺼져 있으면 카운터도 건드리지 않음)
+    public boolean sampled() {
+        return log.isDebugEnabled() && (sampleEvery == 1 || seen.incrementAndGet() % sampleEvery == 0);
+    }
+}
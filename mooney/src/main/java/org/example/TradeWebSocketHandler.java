@@ -1,40 +1,253 @@
 package org.example;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import org.example.service.StockCache;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.*;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 
-import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * /ws/trade 종목별 구독 채널.
+ * 클라이언트는 {"type":"subscribe","stocks":["005930",...]} / {"type":"unsubscribe",...} 로 관심 종목을 지정하고,
+ * 서버는 종목 → 세션 인덱스로 해당 종목을 보는 세션에만 틱을 넣는다. 아무도 보지 않는 종목은 비용이 없다.
+ * 시세 수신 스레드는 세션별 대기열에 종목별 최신 가격만 넣고 바로 돌아간다 (네트워크 I/O 없음).
+ * flush 주기마다 전송 스레드가 세션별로 쌓인 틱을 한 프레임(JSON 배열)으로 묶어 보낸다 (주기 안에서는 종목별 최신 값만).
+ * 세션마다 전송은 한 번에 하나만: 앞 프레임이 아직 나가는 중(또는 decorator 버퍼에 남아 있음)이면 그 주기는 건너뛰고,
+ * 그동안 들어온 틱은 대기열에서 종목별 최신 값으로 합쳐져 다음 프레임에 실린다. 느린 클라이언트는 늦게 받을 뿐 끊기지 않는다.
+ * 한 프레임이 전송 시간 한도를 넘도록 끝나지 않는(멈춘) 세션만 닫는다.
+ */
 @Component
 @RequiredArgsConstructor
 public class TradeWebSocketHandler extends TextWebSocketHandler {
 
-    private final List<WebSocketSession> sessions = new CopyOnWriteArrayList<>();
+    private static final StageLog BROADCAST_LOG = new StageLog("broadcast", 1);
+
+    private final StockCache stockCache;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${trade.broadcast.flush-interval-ms:100}")
+    private long flushIntervalMs;
+
+    @Value("${trade.broadcast.send-threads:4}")
+    private int sendThreads;
+
+    @Value("${trade.broadcast.send-time-limit-ms:5000}")
+    private int sendTimeLimitMs;
+
+    @Value("${trade.broadcast.buffer-size-limit:524288}")
+    private int bufferSizeLimit;
+
+    @Value("${trade.subscription.max-symbols-per-session:200}")
+    private int maxSymbolsPerSession;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Map<String, Subscriber> subscribers = new ConcurrentHashMap<>();
+
+    // 종목코드 → 그 종목을 구독 중인 세션들
+    private final Map<String, Set<Subscriber>> symbolIndex = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService flusher;
+    private Timer deliverTimer;
+    private ExecutorService sender;
+
+    /** 세션 하나의 전송 상태 */
+    private static final class Subscriber {
+        final ConcurrentWebSocketSessionDecorator session;
+        // 종목코드 → 마지막 틱 JSON (같은 종목은 최신 값으로 덮어씀)
+        final Map<String, String> pending = new ConcurrentHashMap<>();
+        // 이 세션이 구독 중인 종목 (연결 종료 시 인덱스 정리용)
+        final Set<String> symbols = ConcurrentHashMap.newKeySet();
+        // 전송 스레드에 넘긴 프레임이 아직 끝나지 않음 (flush 스레드가 세우고 전송 스레드가 내림)
+        final AtomicBoolean sending = new AtomicBoolean();
+        volatile long sendStartedAt;
+
+        Subscriber(ConcurrentWebSocketSessionDecorator session) {
+            this.session = session;
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        deliverTimer = Timer.builder("mooney.broadcast.deliver.latency")
+                .description("세션 하나에 모인 틱을 한 프레임으로 묶어 보내는 데 걸린 시간")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        flusher = Executors.newSingleThreadScheduledExecutor(daemon("trade-broadcast-flush"));
+        sender = Executors.newFixedThreadPool(sendThreads, daemon("trade-broadcast-send"));
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) {
-        sessions.add(session);
+        ConcurrentWebSocketSessionDecorator decorated = new ConcurrentWebSocketSessionDecorator(session,
+                sendTimeLimitMs, bufferSizeLimit, ConcurrentWebSocketSessionDecorator.OverflowStrategy.TERMINATE);
+        subscribers.put(session.getId(), new Subscriber(decorated));
     }
 
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
-        sessions.remove(session);
+        Subscriber s = subscribers.remove(session.getId());
+        if (s == null) return;
+        for (String code : s.symbols) {
+            unsubscribe(s, code);
+        }
     }
 
-    // 체결 이벤트 발생 시 클라이언트로 브로드캐스트
+    // 구독/해지 요청 처리
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        Subscriber s = subscribers.get(session.getId());
+        if (s == null) return;
+
+        JsonNode root = objectMapper.readTree(message.getPayload());
+        String type = root.path("type").asText("");
+        for (JsonNode node : root.path("stocks")) {
+            String code = node.asText("").trim();
+            if (code.isEmpty()) continue;
+
+            if ("subscribe".equals(type)) {
+                if (s.symbols.size() >= maxSymbolsPerSession) break;
+                if (!stockCache.contains(code)) continue; // 없는 종목코드
+                if (s.symbols.add(code)) {
+                    // compute 안에서 추가해야 동시에 빈 집합을 지우는 해지와 엇갈리지 않음
+                    symbolIndex.compute(code, (c, set) -> {
+                        if (set == null) set = ConcurrentHashMap.newKeySet();
+                        set.add(s);
+                        return set;
+                    });
+                }
+            } else if ("unsubscribe".equals(type)) {
+                if (s.symbols.remove(code)) {
+                    unsubscribe(s, code);
+                }
+            }
+        }
+    }
+
+    private void unsubscribe(Subscriber s, String code) {
+        s.pending.keySet().removeIf(key -> key.equals(code) || key.startsWith(code + "@"));
+        symbolIndex.computeIfPresent(code, (c, set) -> {
+            set.remove(s);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    // 체결 이벤트 발생 시 그 종목을 구독한 세션 대기열에만 적재 (실제 전송은 flush 주기에)
     public void sendTrade(String stockCode, int price) {
-        String json = String.format("{\"stock\":\"%s\", \"price\":%d}", stockCode, price);
-        for (WebSocketSession s : sessions) {
-            try {
-                if (s.isOpen()) {
-                    s.sendMessage(new TextMessage(json));
+        Set<Subscriber> watchers = symbolIndex.get(stockCode);
+        if (watchers == null || watchers.isEmpty()) return;
+
+        // 틱 하나당 직렬화는 한 번
+        String json = "{\"stock\":\"" + stockCode + "\",\"price\":" + price + "}";
+        for (Subscriber s : watchers) {
+            s.pending.put(stockCode, json);
+        }
+    }
+
+    // 봉 갱신 (CandleService 주기 작업). 대기열 키는 "종목@주기" 라 체결 틱과 따로 최신 값만 유지
+    public void sendCandle(String stockCode, String interval, String json) {
+        Set<Subscriber> watchers = symbolIndex.get(stockCode);
+        if (watchers == null || watchers.isEmpty()) return;
+
+        String key = stockCode + "@" + interval;
+        for (Subscriber s : watchers) {
+            s.pending.put(key, json);
+        }
+    }
+
+    private void flush() {
+        long now = System.nanoTime();
+        for (Subscriber s : subscribers.values()) {
+            if (s.pending.isEmpty()) continue;
+            // 앞 프레임이 아직 나가는 중이면 건너뜀 → 대기열에서 계속 합쳐짐
+            if (s.sending.get()) {
+                if (now - s.sendStartedAt > TimeUnit.MILLISECONDS.toNanos(sendTimeLimitMs) && s.session.isOpen()) {
+                    BROADCAST_LOG.log().atInfo().setMessage("멈춘 구독 세션 종료").addKeyValue("session", s.session.getId())
+                            .addKeyValue("sendingMs", TimeUnit.NANOSECONDS.toMillis(now - s.sendStartedAt)).log();
+                    close(s, CloseStatus.SESSION_NOT_RELIABLE);
                 }
-            } catch (Exception e) {
-                e.printStackTrace();
+                continue;
+            }
+            if (s.session.getBufferSize() > 0) continue;
+            s.sendStartedAt = now;
+            s.sending.set(true);
+            sender.execute(() -> deliver(s));
+        }
+    }
+
+    // 세션당 전송 스레드는 하나뿐이므로 decorator 버퍼에 쌓이지 않고 바로 보냄 (끝나면 sending 을 내림)
+    private void deliver(Subscriber s) {
+        long startedAt = System.nanoTime();
+        try {
+            StringBuilder frame = new StringBuilder(64 * s.pending.size() + 2).append('[');
+            Iterator<String> codes = s.pending.keySet().iterator();
+            while (codes.hasNext()) {
+                String json = s.pending.remove(codes.next());
+                if (json == null) continue;
+                if (frame.length() > 1) frame.append(',');
+                frame.append(json);
             }
+            if (frame.length() == 1) return;
+
+            if (s.session.isOpen()) {
+                s.session.sendMessage(new TextMessage(frame.append(']')));
+            }
+        } catch (SessionLimitExceededException e) {
+            BROADCAST_LOG.log().atInfo().setMessage("느린 구독 세션 종료").addKeyValue("session", s.session.getId())
+                    .addKeyValue("reason", e.getMessage()).log();
+            close(s, e.getStatus());
+        } catch (Exception e) {
+            BROADCAST_LOG.log().atWarn().setMessage("틱 전송 실패").addKeyValue("session", s.session.getId())
+                    .setCause(e).log();
+        } finally {
+            s.sending.set(false);
+            deliverTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void close(Subscriber s, CloseStatus status) {
+        try {
+            s.session.close(status);
+        } catch (Exception e) {
+            BROADCAST_LOG.log().atDebug().setMessage("세션 닫기 실패").addKeyValue("session", s.session.getId())
+                    .setCause(e).log();
         }
     }
+
+    @PreDestroy
+    public void stop() {
+        flusher.shutdownNow();
+        sender.shutdownNow();
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger seq = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, name + "-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
 }
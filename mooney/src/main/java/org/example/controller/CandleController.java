@@ -0,0 +1,28 @@
+package org.example.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.example.marketdata.CandleSeries;
+import org.example.service.CandleService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/candles")
+@RequiredArgsConstructor
+public class CandleController {
+
+    private final CandleService candleService;
+
+    // 최근 봉 (오래된 것부터, t = 봉 시작 epoch 초)
+    @GetMapping("/{stockCode}")
+    public List<CandleSeries.Bar> recent(@PathVariable String stockCode,
+                                         @RequestParam(defaultValue = "1m") String interval,
+                                         @RequestParam(defaultValue = "100") int limit) {
+        return candleService.recent(stockCode, interval, limit);
+    }
+}
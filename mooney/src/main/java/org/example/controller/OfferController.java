@@ -1,12 +1,33 @@
 package org.example.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.example.KafkaConfig;
+import org.example.StageLog;
+import org.example.dto.OfferAck;
 import org.example.dto.OfferDto;
+import org.example.dto.OrderStatusDto;
+import org.example.service.BulkOfferService;
+import org.example.service.OfferService;
+import org.example.service.OfferValidator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/offer")
@@ -14,15 +35,65 @@ import org.springframework.web.bind.annotation.RestController;
 public class OfferController {
 
     private final KafkaTemplate<String, OfferDto> kafkaTemplate;
+    private final OfferService offerService;
+    private final BulkOfferService bulkOfferService;
+    private final OfferValidator offerValidator;
+
+    // 주문 발행 로그는 logging.level.mooney.order.publish=DEBUG 일 때 N 건에 한 건만
+    @Value("${log.sample.order:100}")
+    private long orderLogSample;
+
+    private StageLog orderLog;
 
+    @PostConstruct
+    public void init() {
+        orderLog = new StageLog("order.publish", orderLogSample);
+    }
+
+    // 주문 접수: 주문번호를 매겨 발행하고, 브로커가 기록을 확인하면(acks=all) 주문번호와 오프셋으로 응답
+    // 형식이 틀린 주문(종목/방향/주문가/수량)은 발행하지 않고 400
     @PostMapping()
-    public void offerStock(@ModelAttribute OfferDto dto) {
+    public CompletableFuture<OfferAck> offerStock(@ModelAttribute OfferDto dto,
+                                                  @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         // @ModelAttribute → Thymeleaf 폼 데이터를 DTO로 자동 매핑
         // DTO의 필드와 폼 input name이 일치하면 자동 매핑
-        kafkaTemplate.send("order-request", dto);
-        System.out.println("📤 메세지 발행 : " + dto.getStockCode() + " " +
-                dto.getOfferPrice() + " " +
-                dto.getOfferCnt() + " " +
-                dto.getOfferSide());
+        if (idempotencyKey != null) dto.setIdempotencyKey(idempotencyKey);
+        OfferValidator.Reason invalid = offerValidator.validate(dto);
+        if (invalid != null) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, invalid.describe(dto));
+        String orderId = offerService.orderIdOf(dto.getIdempotencyKey());
+        dto.setOrderId(orderId);
+        // 종목코드를 키로 → 같은 종목 주문은 항상 같은 파티션(=같은 컨슈머)에서 순서대로 처리
+        return kafkaTemplate.send(KafkaConfig.ORDER_REQUEST_TOPIC, dto.getStockCode(), dto)
+                .thenApply((SendResult<String, OfferDto> result) -> {
+                    if (orderLog.sampled()) {
+                        orderLog.log().atDebug().setMessage("📤 메세지 발행")
+                                .addKeyValue("orderId", orderId)
+                                .addKeyValue("code", dto.getStockCode())
+                                .addKeyValue("price", dto.getOfferPrice())
+                                .addKeyValue("cnt", dto.getOfferCnt())
+                                .addKeyValue("side", dto.getOfferSide())
+                                .log();
+                    }
+                    return new OfferAck(orderId, result.getRecordMetadata().partition(), result.getRecordMetadata().offset());
+                });
+    }
+
+    // 대량 주문: 요청/응답 모두 NDJSON (한 줄에 주문 한 건 → 한 줄에 결과 한 건, 입력 순서대로)
+    @PostMapping(value = "/bulk", consumes = "application/x-ndjson")
+    public void offerBulk(InputStream body, HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        bulkOfferService.submit(body, response.getOutputStream());
+    }
+
+    // 주문번호로 저장된 주문 조회 (아직 컨슈머가 저장 전이면 404 → 잠시 후 다시 조회)
+    @GetMapping("/orders/{orderId}")
+    public ResponseEntity<OrderStatusDto> findOrder(@PathVariable String orderId) {
+        return ResponseEntity.of(offerService.findByOrderId(orderId));
+    }
+
+    // 미체결 주문 취소 (취소됐으면 true, 이미 체결/취소된 주문이면 false)
+    @PostMapping("/{offerId}/cancel")
+    public boolean cancelOffer(@PathVariable Long offerId) {
+        return offerService.cancelOffer(offerId);
     }
-}
+}
\ No newline at end of file
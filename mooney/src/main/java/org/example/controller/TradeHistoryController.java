@@ -0,0 +1,51 @@
+package org.example.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.example.dto.HistoryPage;
+import org.example.service.TradeHistoryService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/history")
+@RequiredArgsConstructor
+public class TradeHistoryController {
+
+    private final TradeHistoryService tradeHistoryService;
+
+    // 계좌별 체결 이력 (최신순, before = 이전 응답의 nextCursor)
+    @GetMapping("/accounts/{accountId}")
+    public HistoryPage byAccount(@PathVariable Long accountId,
+                                 @RequestParam(required = false) Long before,
+                                 @RequestParam(defaultValue = "50") int size) {
+        return tradeHistoryService.byAccount(accountId, before, size);
+    }
+
+    // 종목별 체결 이력
+    @GetMapping("/stocks/{stockCode}")
+    public HistoryPage byStock(@PathVariable String stockCode,
+                               @RequestParam(required = false) Long before,
+                               @RequestParam(defaultValue = "50") int size) {
+        return tradeHistoryService.byStock(stockCode, before, size);
+    }
+
+    // 기간 전체 내보내기 (NDJSON 스트리밍, 예: ?from=2025-01-01T00:00:00&to=2025-02-01T00:00:00)
+    @GetMapping("/accounts/{accountId}/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @PathVariable Long accountId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        StreamingResponseBody body = out -> tradeHistoryService.exportByAccount(accountId, from, to, out);
+        return ResponseEntity.ok()
+                .header("Content-Type", "application/x-ndjson")
+                .body(body);
+    }
+}
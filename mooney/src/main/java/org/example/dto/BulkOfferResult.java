@@ -0,0 +1,16 @@
+package org.example.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/** 대량 주문 한 줄의 처리 결과: 접수되면 주문번호/파티션/오프셋, 아니면 error */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkOfferResult(long line, String orderId, Integer partition, Long offset, String error) {
+
+    public static BulkOfferResult accepted(long line, String orderId, int partition, long offset) {
+        return new BulkOfferResult(line, orderId, partition, offset, null);
+    }
+
+    public static BulkOfferResult rejected(long line, String orderId, String error) {
+        return new BulkOfferResult(line, orderId, null, null, error);
+    }
+}
@@ -0,0 +1,7 @@
+package org.example.dto;
+
+import java.util.List;
+
+/** keyset 페이지: 다음 페이지는 nextCursor 를 before 로 넘겨 요청 (null 이면 끝) */
+public record HistoryPage(List<TradeHistoryDto> items, Long nextCursor) {
+}
@@ -0,0 +1,5 @@
+package org.example.dto;
+
+/** 주문 접수 응답: Kafka 에 기록된 뒤 돌려줌. offerId 는 나중에 /offer/orders/{orderId} 로 조회 */
+public record OfferAck(String orderId, int partition, long offset) {
+}
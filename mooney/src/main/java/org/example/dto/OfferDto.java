@@ -6,6 +6,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.example.entity.Account;
 import org.example.entity.Offer;
+import org.example.entity.OfferStatus;
 import org.example.entity.Stock;
 import org.example.entity.Trade;
 
@@ -15,12 +16,16 @@ import org.example.entity.Trade;
 public class OfferDto {
     // 종목코드
     private String stockCode;
-    // 호가 (주문가)
-    private double offerPrice;
+    // 호가 (주문가, 원 단위)
+    private long offerPrice;
     // 주문량
     private int offerCnt;
     // 매도 or 매수 여부
     private String offerSide;
+    // 클라이언트 멱등 키 (같은 키로 재전송하면 같은 주문으로 취급, 헤더 Idempotency-Key 로도 받음)
+    private String idempotencyKey;
+    // 접수 시 서버가 매기는 주문번호 (멱등 키가 있으면 키에서 파생)
+    private String orderId;
 
     @Builder(builderMethodName = "offerBuilder")
     public Offer toEntity(OfferDto dto, Stock stock, Account account) {
@@ -29,7 +34,8 @@ public class OfferDto {
                 .offerPrice(dto.getOfferPrice())
                 .offerCnt(dto.getOfferCnt())
                 .offerSide(dto.getOfferSide())
-                .offerStatus("PENDING")
+                .offerStatus(OfferStatus.PENDING)
+                .orderId(dto.getOrderId())
                 .account(account)
                 .build();
     }
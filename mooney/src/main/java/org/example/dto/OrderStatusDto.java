@@ -0,0 +1,16 @@
+package org.example.dto;
+
+import org.example.entity.OfferStatus;
+
+/** 주문번호로 조회한 주문 상태. rejectReason 은 REJECTED 일 때만 */
+public record OrderStatusDto(String orderId, Long offerId, OfferStatus status, int offerCnt, int filledCnt,
+                             String rejectReason) {
+
+    public OrderStatusDto(String orderId, Long offerId, OfferStatus status, int offerCnt, int filledCnt) {
+        this(orderId, offerId, status, offerCnt, filledCnt, null);
+    }
+
+    public static OrderStatusDto rejected(String orderId, String reason) {
+        return new OrderStatusDto(orderId, null, OfferStatus.REJECTED, 0, 0, reason);
+    }
+}
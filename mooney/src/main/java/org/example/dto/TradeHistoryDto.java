@@ -0,0 +1,8 @@
+package org.example.dto;
+
+import java.time.LocalDateTime;
+
+/** 체결 이력 한 건 (조회 응답용 프로젝션) */
+public record TradeHistoryDto(Long historyId, Long offerId, Long accountId, String stockCode, String offerSide,
+                              long tradePrice, int tradeCnt, LocalDateTime tradedAt) {
+}
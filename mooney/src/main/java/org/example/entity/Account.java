@@ -13,13 +13,13 @@ public class Account {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long accountId;
 
-    private double cashBalance;
+    private long cashBalance; // 원 단위
 
     @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false, unique = true)
     private User user;
 
-    public void updateCashBalance(double newCashBalance) {
+    public void updateCashBalance(long newCashBalance) {
         this.cashBalance = newCashBalance;
     }
 }
@@ -0,0 +1,29 @@
+package org.example.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * 계좌 현금 변동 원장 (append-only).
+ * 체결마다 한 행씩 쌓이고, 주기적으로 Account.cashBalance 에 합산된 뒤 지워진다.
+ * 금액은 원 단위 정수 (매수 출금은 음수).
+ */
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Entity
+@Builder
+@AllArgsConstructor
+@Table(indexes = @Index(columnList = "account_id"))
+public class BalanceDelta {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long deltaId;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(name = "offer_id", nullable = false)
+    private Long offerId;
+
+    private long amount;
+}
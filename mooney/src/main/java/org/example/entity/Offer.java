@@ -3,23 +3,39 @@ package org.example.entity;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.LocalDateTime;
+
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @Entity
 @Builder
 @AllArgsConstructor
+@Table(indexes = {
+        @Index(name = "idx_offer_stock_status_price", columnList = "stock_id, offer_status, offer_price"),
+        @Index(name = "idx_offer_status_id", columnList = "offer_status, offer_id"),
+        @Index(name = "idx_offer_order_id", columnList = "order_id")
+})
 public class Offer {
+    // IDENTITY 는 insert 마다 키를 받아와야 해서 JDBC 배치가 꺼짐 → 풀링 시퀀스로 50개씩 미리 할당
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "offer_seq")
+    @SequenceGenerator(name = "offer_seq", sequenceName = "offer_seq", allocationSize = 50)
     private Long offerId;
 
-    private double offerPrice;
+    private long offerPrice; // 원 단위
 
     private int offerCnt;
 
+    private int offerFilledCnt; // 부분 체결 누적 수량
+
     private String offerSide; // "BUY" / "SELL"
 
-    private String offerStatus; // "PENDING" / "FILLED" / "CANCELED"
+    private OfferStatus offerStatus; // SMALLINT (OfferStatusConverter)
+
+    private LocalDateTime offerClosedAt; // 체결 완료/취소 시각 (보관 이동 기준)
+
+    @Column(length = 36)
+    private String orderId; // 접수 응답으로 돌려준 주문번호
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "account_id", nullable = false)
@@ -30,6 +46,6 @@ public class Offer {
     private Stock stock;
 
     public void isFilled() {
-        this.offerStatus = "FILLED";
+        this.offerStatus = OfferStatus.FILLED;
     }
 }
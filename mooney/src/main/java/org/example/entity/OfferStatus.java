@@ -0,0 +1,23 @@
+package org.example.entity;
+
+/** 주문 상태. DB 에는 code(SMALLINT)로 저장. REJECTED 는 접수 단계 거절로 offer 행 없이 order_rejection 에만 남음 */
+public enum OfferStatus {
+    PENDING(0), FILLED(1), CANCELED(2), REJECTED(3);
+
+    private final int code;
+
+    OfferStatus(int code) {
+        this.code = code;
+    }
+
+    public int code() {
+        return code;
+    }
+
+    public static OfferStatus of(int code) {
+        for (OfferStatus s : values()) {
+            if (s.code == code) return s;
+        }
+        throw new IllegalArgumentException("알 수 없는 주문 상태 코드: " + code);
+    }
+}
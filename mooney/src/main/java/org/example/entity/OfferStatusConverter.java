@@ -0,0 +1,18 @@
+package org.example.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class OfferStatusConverter implements AttributeConverter<OfferStatus, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(OfferStatus status) {
+        return status == null ? null : (short) status.code();
+    }
+
+    @Override
+    public OfferStatus convertToEntityAttribute(Short code) {
+        return code == null ? null : OfferStatus.of(code);
+    }
+}
@@ -1,5 +1,6 @@
 package org.example.entity;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -18,5 +19,6 @@ public class Stock {
 
     private String stockName;
 
+    @Column(unique = true)
     private String stockCode;
 }
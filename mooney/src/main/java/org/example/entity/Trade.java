@@ -13,8 +13,14 @@ public class Trade {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long tradeId;
 
-    @OneToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "offer_id", nullable = false, unique = true)
+    // 접수 시점에 한 건, 체결 시점에 한 건이 쌓이므로 주문당 여러 행이 될 수 있음
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "offer_id", nullable = false)
     private Offer offer;
 
+    // 체결 행에만 채워짐 (접수 시점 행은 null)
+    private Long tradePrice;
+
+    private Integer tradeCnt;
+
 }
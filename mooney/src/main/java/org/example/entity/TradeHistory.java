@@ -0,0 +1,40 @@
+package org.example.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 조회용 체결 이력 (체결 한 건 = 한 행).
+ * TradeJournal 이 체결 저장과 같은 트랜잭션에서 JDBC 로 채우며, 조회는 DTO 프로젝션으로만 한다.
+ */
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Entity
+@Builder
+@AllArgsConstructor
+@Table(indexes = {
+        @Index(name = "idx_trade_history_account", columnList = "account_id, history_id"),
+        @Index(name = "idx_trade_history_stock", columnList = "stock_code, history_id"),
+        @Index(name = "idx_trade_history_account_time", columnList = "account_id, traded_at")
+})
+public class TradeHistory {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long historyId;
+
+    private Long offerId;
+
+    private Long accountId;
+
+    private String stockCode;
+
+    private String offerSide;
+
+    private long tradePrice;
+
+    private int tradeCnt;
+
+    private LocalDateTime tradedAt;
+}
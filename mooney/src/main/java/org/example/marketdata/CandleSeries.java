@@ -0,0 +1,86 @@
+package org.example.marketdata;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 종목 하나, 봉 주기 하나의 OHLCV 링 버퍼.
+ * 생성 시 배열을 전부 잡아 두고 틱마다 현재 봉만 갱신하므로 종목당 메모리가 고정이고 틱 경로에 할당이 없다.
+ * 오래된 봉은 덮어쓴다. 쓰기(틱 수신 스레드)와 읽기(REST/푸시)가 섞이므로 메서드 단위로 동기화.
+ */
+public final class CandleSeries {
+
+    /** 봉 하나 (조회 결과용 스냅샷). start 는 봉 시작 시각(epoch 초) */
+    public record Bar(long start, long open, long high, long low, long close, long volume) {}
+
+    private final int intervalSec;
+    private final long[] start;
+    private final long[] open;
+    private final long[] high;
+    private final long[] low;
+    private final long[] close;
+    private final long[] volume;
+
+    private int head = -1;  // 현재(가장 최근) 봉 위치
+    private int count;
+    private boolean dirty;  // 마지막 drainDirty 이후 갱신 여부
+
+    public CandleSeries(int intervalSec, int capacity) {
+        this.intervalSec = intervalSec;
+        this.start = new long[capacity];
+        this.open = new long[capacity];
+        this.high = new long[capacity];
+        this.low = new long[capacity];
+        this.close = new long[capacity];
+        this.volume = new long[capacity];
+    }
+
+    public int intervalSec() {
+        return intervalSec;
+    }
+
+    /**
+     * 틱 반영. 새 봉이 열리면 직전 봉(이제 마감된 봉)을 돌려주고, 아니면 null.
+     * 현재 봉보다 이른 시각의 틱(지연 도착)은 현재 봉에 합친다.
+     */
+    public synchronized Bar onTick(long epochSec, long price, long qty) {
+        long bucket = epochSec - Math.floorMod(epochSec, intervalSec);
+        dirty = true;
+        if (head >= 0 && bucket <= start[head]) {
+            if (price > high[head]) high[head] = price;
+            if (price < low[head]) low[head] = price;
+            close[head] = price;
+            volume[head] += qty;
+            return null;
+        }
+
+        Bar closed = head >= 0 ? barAt(head) : null;
+        head = (head + 1) % start.length;
+        if (count < start.length) count++;
+        start[head] = bucket;
+        open[head] = high[head] = low[head] = close[head] = price;
+        volume[head] = qty;
+        return closed;
+    }
+
+    // 최근 limit 개 봉 (오래된 것부터). limit 이 0 이하면 빈 목록
+    public synchronized List<Bar> recent(int limit) {
+        int n = Math.max(0, Math.min(limit, count));
+        List<Bar> bars = new ArrayList<>(n);
+        for (int k = n - 1; k >= 0; k--) {
+            bars.add(barAt(Math.floorMod(head - k, start.length)));
+        }
+        return bars;
+    }
+
+    // 마지막 호출 이후 갱신됐으면 현재 봉, 아니면 null (실시간 푸시용)
+    public synchronized Bar drainDirty() {
+        if (!dirty || head < 0) return null;
+        dirty = false;
+        return barAt(head);
+    }
+
+    private Bar barAt(int i) {
+        return new Bar(start[i], open[i], high[i], low[i], close[i], volume[i]);
+    }
+}
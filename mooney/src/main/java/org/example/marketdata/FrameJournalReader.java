@@ -0,0 +1,57 @@
+package org.example.marketdata;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+/** FrameJournalWriter 가 남긴 세그먼트를 파일 이름 순(= 기록 순)으로 읽는다. */
+public final class FrameJournalReader {
+
+    @FunctionalInterface
+    public interface FrameVisitor {
+        /** false 를 돌려주면 중단 */
+        boolean onFrame(long epochMillis, long nanoTime, String message) throws Exception;
+    }
+
+    private FrameJournalReader() {
+    }
+
+    // 읽은 프레임 수
+    public static long read(Path dir, FrameVisitor visitor) throws Exception {
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(dir)) {
+            segments = files.filter(p -> p.getFileName().toString().endsWith(FrameJournalWriter.SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+
+        long count = 0;
+        byte[] scratch = new byte[4096];
+        for (Path segment : segments) {
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                while (buf.remaining() >= FrameJournalWriter.HEADER_BYTES) {
+                    int length = buf.getInt();
+                    if (length <= 0) break;
+                    long epochMillis = buf.getLong();
+                    long nanoTime = buf.getLong();
+                    if (scratch.length < length) scratch = new byte[Math.max(length, scratch.length * 2)];
+                    buf.get(scratch, 0, length);
+                    count++;
+                    if (!visitor.onFrame(epochMillis, nanoTime, new String(scratch, 0, length, StandardCharsets.UTF_8))) {
+                        return count;
+                    }
+                }
+            } catch (IOException e) {
+                throw new IOException("세그먼트 읽기 실패: " + segment, e);
+            }
+        }
+        return count;
+    }
+}
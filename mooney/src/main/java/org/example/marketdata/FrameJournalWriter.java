@@ -0,0 +1,100 @@
+package org.example.marketdata;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * KIS 원본 프레임 기록기 (append-only, 메모리 맵 세그먼트).
+ * 레코드: [int 길이][long 수신 epoch ms][long 수신 nanoTime][UTF-8 본문]. 길이 0 이 나오면 세그먼트 끝.
+ * 세그먼트가 차면 새 파일(frames-yyyyMMdd-HHmmss-순번.seg)로 넘어간다.
+ * 여러 KIS 세션 수신 스레드가 함께 쓰므로 append 는 동기화 (수신 순서 = 기록 순서).
+ */
+public final class FrameJournalWriter implements AutoCloseable {
+
+    public static final int HEADER_BYTES = 4 + 8 + 8;
+    static final String SUFFIX = ".seg";
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int segmentSeq;
+
+    public FrameJournalWriter(Path dir, int segmentBytes) throws IOException {
+        this.dir = Files.createDirectories(dir);
+        this.segmentBytes = segmentBytes;
+        roll();
+    }
+
+    public synchronized void append(long epochMillis, long nanoTime, CharSequence message) throws IOException {
+        if (buffer == null) return; // 닫힘
+        if (!tryAppend(epochMillis, nanoTime, message)) {
+            roll();
+            if (!tryAppend(epochMillis, nanoTime, message)) {
+                throw new IOException("세그먼트보다 큰 프레임: " + message.length() + "자");
+            }
+        }
+    }
+
+    // 본문을 버퍼에 바로 인코딩하고 길이는 나중에 채움. 자리가 모자라면 위치를 되돌리고 false
+    private boolean tryAppend(long epochMillis, long nanoTime, CharSequence message) {
+        int start = buffer.position();
+        // 끝 표시(길이 0)용 4바이트는 항상 남겨 둠
+        if (buffer.remaining() < HEADER_BYTES + 4) return false;
+
+        buffer.position(start + HEADER_BYTES);
+        encoder.reset();
+        int limit = buffer.limit();
+        buffer.limit(limit - 4);
+        CoderResult result = encoder.encode(CharBuffer.wrap(message), buffer, true);
+        if (!result.isOverflow()) result = encoder.flush(buffer);
+        buffer.limit(limit);
+        if (result.isOverflow()) {
+            buffer.position(start);
+            return false;
+        }
+
+        int length = buffer.position() - start - HEADER_BYTES;
+        buffer.putInt(start, length);
+        buffer.putLong(start + 4, epochMillis);
+        buffer.putLong(start + 12, nanoTime);
+        return true;
+    }
+
+    private void roll() throws IOException {
+        closeSegment();
+        String name = "frames-" + LocalDateTime.now().format(NAME_FORMAT) + "-" + String.format("%04d", segmentSeq++) + SUFFIX;
+        channel = FileChannel.open(dir.resolve(name),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+    }
+
+    private void closeSegment() throws IOException {
+        if (buffer != null) {
+            buffer.force();
+            buffer = null;
+        }
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closeSegment();
+    }
+}
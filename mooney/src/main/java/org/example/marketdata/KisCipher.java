@@ -0,0 +1,31 @@
+package org.example.marketdata;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/** KIS 실시간 암호화 채널(AES/CBC) 복호화 유틸 */
+public final class KisCipher {
+
+    private KisCipher() {}
+
+    public static byte[] hexToBytes(String hex) {
+        int len = hex.length();
+        byte[] out = new byte[len / 2];
+        for (int i = 0; i < len; i += 2) {
+            out[i / 2] = (byte) ((Character.digit(hex.charAt(i), 16) << 4)
+                    + Character.digit(hex.charAt(i + 1), 16));
+        }
+        return out;
+    }
+
+    public static String decryptBase64(String base64, byte[] iv, byte[] key) throws Exception {
+        byte[] enc = Base64.getDecoder().decode(base64);
+        Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding"); // (PKCS7 호환)
+        cipher.init(Cipher.DECRYPT_MODE, new SecretKeySpec(key, "AES"), new IvParameterSpec(iv));
+        byte[] dec = cipher.doFinal(enc);
+        return new String(dec, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,98 @@
+package org.example.marketdata;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+/**
+ * 구독(trId:trKey) 하나의 복호화 컨텍스트.
+ * 구독 성공 시점에 Cipher 를 한 번만 만들어 init 해 두고, Base64/암호문/평문/문자 버퍼를 재사용한다.
+ * doFinal 이 끝나면 Cipher 는 init 직후 상태(같은 key/iv)로 돌아가므로 메시지마다 다시 init 할 필요가 없다.
+ *
+ * 스레드 안전하지 않음: 웹소켓 세션 수신 스레드에서만 사용한다.
+ */
+public final class KisDecryptContext {
+
+    // Base64 문자 → 6bit 값 (-1: Base64 문자가 아님)
+    private static final int[] BASE64 = new int[128];
+    static {
+        Arrays.fill(BASE64, -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+        for (int i = 0; i < alphabet.length(); i++) BASE64[alphabet.charAt(i)] = i;
+    }
+
+    private final Cipher cipher;
+    private final CharsetDecoder utf8 = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    private byte[] encrypted = new byte[1024];
+    private byte[] plain = new byte[1024];
+    private ByteBuffer plainBuffer = ByteBuffer.wrap(plain);
+    private CharBuffer chars = CharBuffer.allocate(1024);
+
+    public KisDecryptContext(byte[] key, byte[] iv) throws GeneralSecurityException {
+        cipher = Cipher.getInstance("AES/CBC/PKCS5Padding"); // (PKCS7 호환)
+        cipher.init(Cipher.DECRYPT_MODE, new SecretKeySpec(key, "AES"), new IvParameterSpec(iv));
+    }
+
+    /**
+     * Base64 암호문을 복호화한다.
+     * 반환값은 내부 버퍼를 그대로 가리키므로 다음 decrypt 호출 전까지만 유효하다.
+     */
+    public CharSequence decrypt(CharSequence base64Text) throws GeneralSecurityException {
+        // Base64 → 암호문
+        int encLen = decodeBase64(base64Text);
+
+        // 암호문 → 평문
+        int maxPlain = cipher.getOutputSize(encLen);
+        if (plain.length < maxPlain) {
+            plain = new byte[maxPlain];
+            plainBuffer = ByteBuffer.wrap(plain);
+        }
+        int plainLen = cipher.doFinal(encrypted, 0, encLen, plain, 0);
+
+        // 평문(UTF-8) → 문자
+        if (chars.capacity() < plainLen) chars = CharBuffer.allocate(plainLen);
+        plainBuffer.clear().limit(plainLen);
+        chars.clear();
+        utf8.reset();
+        utf8.decode(plainBuffer, chars, true);
+        utf8.flush(chars);
+        return chars.flip();
+    }
+
+    // CharSequence 를 바로 디코딩 (Base64.Decoder 는 String/배열 전체만 받아 중간 배열이 생김)
+    private int decodeBase64(CharSequence text) {
+        int len = text.length();
+        int maxDecoded = len / 4 * 3 + 3;
+        if (encrypted.length < maxDecoded) encrypted = new byte[maxDecoded];
+
+        int bits = 0;
+        int bitCount = 0;
+        int out = 0;
+        for (int i = 0; i < len; i++) {
+            char c = text.charAt(i);
+            if (c == '=') break;
+            int v = c < 128 ? BASE64[c] : -1;
+            if (v < 0) {
+                if (c <= ' ') continue; // 줄바꿈/공백 무시
+                throw new IllegalArgumentException("Base64 문자가 아님: " + c);
+            }
+            bits = (bits << 6) | v;
+            bitCount += 6;
+            if (bitCount >= 8) {
+                bitCount -= 8;
+                encrypted[out++] = (byte) (bits >> bitCount);
+            }
+        }
+        return out;
+    }
+}
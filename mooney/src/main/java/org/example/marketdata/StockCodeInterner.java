@@ -0,0 +1,52 @@
+package org.example.marketdata;
+
+/**
+ * 문자열 구간 → 정규화된 종목코드 String 변환 테이블 (open addressing).
+ * 한 번 본 코드는 같은 String 인스턴스를 돌려주므로 워밍업 이후에는 할당이 없다.
+ * 스레드 안전하지 않음: 파서 인스턴스(수신 스레드)마다 하나씩 쓴다.
+ */
+final class StockCodeInterner {
+
+    private String[] table = new String[4096];
+    private int size;
+
+    String intern(CharSequence cs, int start, int end) {
+        int mask = table.length - 1;
+        int i = hash(cs, start, end) & mask;
+        String s;
+        while ((s = table[i]) != null) {
+            if (matches(s, cs, start, end)) return s;
+            i = (i + 1) & mask;
+        }
+        s = cs.subSequence(start, end).toString();
+        table[i] = s;
+        if (++size * 2 > table.length) grow();
+        return s;
+    }
+
+    private static int hash(CharSequence cs, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) h = 31 * h + cs.charAt(i);
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean matches(String s, CharSequence cs, int start, int end) {
+        if (s.length() != end - start) return false;
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) != cs.charAt(start + i)) return false;
+        }
+        return true;
+    }
+
+    private void grow() {
+        String[] old = table;
+        table = new String[old.length * 2];
+        int mask = table.length - 1;
+        for (String s : old) {
+            if (s == null) continue;
+            int i = hash(s, 0, s.length()) & mask;
+            while (table[i] != null) i = (i + 1) & mask;
+            table[i] = s;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package org.example.marketdata;
+
+/**
+ * KIS 실시간 체결(H0STCNT0) 프레임 파서.
+ * split/정규식 없이 프레임을 한 번만 훑으면서 필요한 필드(종목코드, 체결시각, 체결가, 체결량)만 숫자로 꺼낸다.
+ *
+ * 프레임 형식: {@code 암호화여부|TR_ID|건수|레코드...}
+ * 레코드는 '^' 로 구분된 46개 필드이며, 건수가 2 이상이면 레코드가 '^' 로 이어 붙어 온다.
+ * (레코드마다 '|' 로 나뉘어 오는 경우도 레코드 경계로 처리)
+ *
+ * 인스턴스는 수신 스레드 하나에서만 사용한다.
+ */
+public final class TickFrameParser {
+
+    public static final String TR_ID = "H0STCNT0";
+
+    /** H0STCNT0 레코드 당 필드 수 */
+    static final int FIELDS_PER_RECORD = 46;
+
+    private static final int F_STOCK_CODE = 0;  // 유가증권단축종목코드
+    private static final int F_TIME = 1;        // 주식체결시간 (HHMMSS)
+    private static final int F_PRICE = 2;       // 주식현재가 (체결가)
+    private static final int F_VOLUME = 12;     // 체결거래량
+
+    /** 파싱된 체결 한 건을 받는 콜백. 인자는 모두 원시값/정규화된 String 이라 호출마다 할당이 없다 */
+    @FunctionalInterface
+    public interface TickSink {
+        void onTick(String stockCode, int time, int price, long volume);
+    }
+
+    private final StockCodeInterner codes = new StockCodeInterner();
+
+    // 현재 레코드 상태 (재사용)
+    private int codeStart;
+    private int codeEnd;
+    private int time;
+    private int price;
+    private long volume;
+
+    /**
+     * 파이프 프레임 전체를 파싱한다.
+     * @return 전달한 체결 건수, 체결 채널이 아니면 0, 프레임이 깨져 있으면 -1
+     */
+    public int parseFrame(CharSequence frame, TickSink sink) {
+        int len = frame.length();
+
+        int end0 = indexOf(frame, '|', 0, len);
+        if (end0 < 0) return -1;
+        int end1 = indexOf(frame, '|', end0 + 1, len);
+        if (end1 < 0) return -1;
+
+        // 채널 위치 동적 판별 (환경에 따라 f[0] 또는 f[1]에 올 수 있음)
+        int countStart;
+        if (regionEqualsIgnoreCase(frame, end0 + 1, end1, TR_ID)) {
+            countStart = end1 + 1;
+        } else if (regionEqualsIgnoreCase(frame, 0, end0, TR_ID)) {
+            countStart = end0 + 1;
+        } else {
+            return 0;
+        }
+
+        int countEnd = indexOf(frame, '|', countStart, len);
+        if (countEnd < 0) return -1;
+
+        // 건수가 0이거나 파싱 실패하면 남은 데이터 전부를 레코드로 간주 (페일세이프)
+        int count = parseInt(frame, countStart, countEnd);
+        return parseRecords(frame, countEnd + 1, len, count, sink);
+    }
+
+    /**
+     * 레코드 구간만 파싱한다. (복호화된 content 처럼 헤더가 없는 경우)
+     * @param maxRecords 0 이하이면 구간 끝까지
+     */
+    public int parseRecords(CharSequence cs, int from, int to, int maxRecords, TickSink sink) {
+        int delivered = 0;
+        int records = 0;
+        int field = 0;
+        int fieldStart = from;
+        resetRecord();
+
+        for (int i = from; i <= to; i++) {
+            char c = i < to ? cs.charAt(i) : '|';
+            if (c != '^' && c != '|') continue;
+
+            onField(cs, field, fieldStart, i);
+            fieldStart = i + 1;
+            field++;
+
+            if (field == FIELDS_PER_RECORD || c == '|') {
+                if (field >= F_PRICE + 1 && emit(cs, sink)) delivered++;
+                records++;
+                if (maxRecords > 0 && records >= maxRecords) break;
+                field = 0;
+                resetRecord();
+            }
+        }
+        return delivered;
+    }
+
+    private void onField(CharSequence cs, int field, int start, int end) {
+        switch (field) {
+            case F_STOCK_CODE -> {
+                // trim
+                while (start < end && cs.charAt(start) <= ' ') start++;
+                while (end > start && cs.charAt(end - 1) <= ' ') end--;
+                codeStart = start;
+                codeEnd = end;
+            }
+            case F_TIME -> time = parseInt(cs, start, end);
+            case F_PRICE -> price = parseInt(cs, start, end);
+            case F_VOLUME -> volume = parseInt(cs, start, end);
+            default -> { }
+        }
+    }
+
+    private boolean emit(CharSequence cs, TickSink sink) {
+        if (codeEnd <= codeStart || price <= 0) return false;
+        sink.onTick(codes.intern(cs, codeStart, codeEnd), time, price, volume);
+        return true;
+    }
+
+    private void resetRecord() {
+        codeStart = codeEnd = 0;
+        time = price = 0;
+        volume = 0;
+    }
+
+    /* ===== Utils ===== */
+
+    private static int indexOf(CharSequence cs, char ch, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (cs.charAt(i) == ch) return i;
+        }
+        return -1;
+    }
+
+    private static boolean regionEqualsIgnoreCase(CharSequence cs, int start, int end, String s) {
+        while (start < end && cs.charAt(start) <= ' ') start++;
+        while (end > start && cs.charAt(end - 1) <= ' ') end--;
+        if (end - start != s.length()) return false;
+        for (int i = 0; i < s.length(); i++) {
+            if (Character.toUpperCase(cs.charAt(start + i)) != s.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /** 부호 있는 10진 정수. 숫자가 아니면 0 (기존 parseIntSafe 와 동일한 의미) */
+    static int parseInt(CharSequence cs, int start, int end) {
+        while (start < end && cs.charAt(start) <= ' ') start++;
+        while (end > start && cs.charAt(end - 1) <= ' ') end--;
+        if (start >= end) return 0;
+
+        boolean negative = false;
+        char first = cs.charAt(start);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++start == end) return 0;
+        }
+
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int d = cs.charAt(i) - '0';
+            if (d < 0 || d > 9) return 0;
+            value = value * 10 + d;
+            if (value > Integer.MAX_VALUE + 1L) return 0;
+        }
+        value = negative ? -value : value;
+        return (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) ? 0 : (int) value;
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.matching;
+
+/**
+ * 매칭 엔진이 만든 체결 한 건 (DB 반영 전). price 는 체결가, limitPrice 는 주문 지정가, qty 는 이번 체결 수량,
+ * remainingQty 는 체결 후 호가창에 남은 수량 (0 이면 전량 체결)
+ */
+public record Fill(String stockCode, long offerId, long accountId, String side, long price, int qty, long limitPrice,
+                   int remainingQty) {
+
+    // 계좌 현금 변동분: 매수는 출금, 매도는 입금
+    public long cashDelta() {
+        long amount = price * qty;
+        return "BUY".equals(side) ? -amount : amount;
+    }
+}
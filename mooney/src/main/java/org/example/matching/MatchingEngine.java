@@ -0,0 +1,294 @@
+package org.example.matching;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.example.StageLog;
+import org.example.entity.Offer;
+import org.example.entity.OfferStatus;
+import org.example.repository.OfferRepository;
+import org.example.service.AccountLedger;
+import org.example.service.TradeJournal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * 종목코드 해시로 고정 개수의 단일 스레드 샤드에 이벤트를 분배하는 매칭 엔진.
+ * 같은 종목의 체결 틱과 신규 주문은 항상 같은 샤드 큐로 들어가므로 종목별 처리 순서가 결정적이다.
+ * 주문 이벤트 저널이 켜져 있으면 기동 시 최근 스냅샷 + 그 뒤 저널 꼬리만 재생해 호가창을 복구하고,
+ * DB 에 아직 반영되지 않은 체결/취소를 저널에서 다시 반영한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class MatchingEngine {
+
+    private static final StageLog MATCH_LOG = new StageLog("match", 1);
+
+    private final OfferRepository offerRepository;
+    private final TradeJournal tradeJournal;
+    private final AccountLedger accountLedger;
+    private final OrderEventLog eventLog;
+    private final List<OrderBookListener> listeners;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${matching.shards:4}")
+    private int shardCount;
+
+    // 체결 디버그 로그는 logging.level.mooney.match.fill=DEBUG 일 때 N 건에 한 건만
+    @Value("${log.sample.fill:100}")
+    private long fillLogSample;
+
+    private MatchingShard[] shards;
+
+    // 저널에서 복구한 호가창과 그 종목에서 저널이 아는 주문 번호. 파티션이 처음 배정될 때 한 번 쓰고 버림
+    private record Recovered(OrderBook book, Set<Long> known) {}
+
+    private final Map<String, Recovered> recovered = new ConcurrentHashMap<>();
+
+    // 직전 스냅샷의 가장 낮은 기준점: 최신 스냅샷이 손상돼도 직전 것으로 복구할 수 있게 저널은 여기까지만 정리
+    private long previousLowestMark;
+    private long lastSnapshotSeq = -1;
+
+    // 호가창은 비어 있는 채로 시작. 어떤 종목을 맡을지는 주문 토픽 파티션 배정에 따라 loadPending 으로 정해짐
+    @PostConstruct
+    public void init() throws Exception {
+        AtomicLong resting = new AtomicLong();
+        Gauge.builder("mooney.offers.resting", resting, AtomicLong::get)
+                .description("호가창에 걸려 있는 미체결 주문 수")
+                .register(meterRegistry);
+        MatchingShard.Meters meters = new MatchingShard.Meters(
+                Timer.builder("mooney.tick.match.latency")
+                        .description("체결 틱 파싱부터 매칭 완료까지 (샤드 큐 대기 포함)")
+                        .publishPercentileHistogram()
+                        .register(meterRegistry),
+                Counter.builder("mooney.fills")
+                        .description("매칭 엔진이 만든 체결 수")
+                        .register(meterRegistry),
+                resting);
+
+        StageLog fillLog = new StageLog("match.fill", fillLogSample);
+        shards = new MatchingShard[Math.max(1, shardCount)];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new MatchingShard(i, eventLog, accountLedger, listeners, meters, fillLog);
+        }
+        if (eventLog.isEnabled()) recover();
+        MATCH_LOG.log().info("📚 매칭 엔진 시작: 샤드 {}개", shards.length);
+    }
+
+    /* ===== 저널 복구 ===== */
+
+    private void recover() throws Exception {
+        long startedAt = System.currentTimeMillis();
+        Path dir = eventLog.dir();
+        OrderSnapshot snapshot = OrderSnapshot.readLatest(dir);
+        if (snapshot != null) {
+            for (Map.Entry<String, List<OrderSnapshot.Resting>> e : snapshot.books.entrySet()) {
+                Recovered r = recovered(e.getKey());
+                for (OrderSnapshot.Resting o : e.getValue()) {
+                    r.book().add(o.offerId(), o.accountId(), o.side(), o.price(), o.qty());
+                    r.known().add(o.offerId());
+                }
+            }
+            previousLowestMark = snapshot.lowestMark();
+        }
+
+        // 스냅샷 기준점 뒤의 이벤트는 호가창에, DB 체크포인트 뒤의 이벤트는 DB/원장에 반영
+        long checkpoint = tradeJournal.checkpoint();
+        long[] counts = new long[2];
+        long lastSeq = OrderEventLog.read(dir, (seq, e) -> {
+            if (e.type() == OrderEvent.MARK) return;
+            if (snapshot == null || seq > snapshot.mark(e.shard())) {
+                replay(e);
+                counts[0]++;
+            }
+            // 체크포인트는 체결만 따라가므로 그 사이의 취소는 DB 반영 여부를 보장하지 않음 → 취소는 남은 저널 전부 다시 확인
+            if (seq > checkpoint || e.type() == OrderEvent.CANCELED) {
+                catchUp(seq, e);
+                counts[1]++;
+            }
+        });
+
+        long highestMark = snapshot == null ? 0 : snapshot.marks.values().stream().mapToLong(Long::longValue).max().orElse(0);
+        eventLog.start(Math.max(lastSeq, Math.max(highestMark, checkpoint)) + 1);
+        // 따라잡은 체결이 DB 에 들어간 뒤에야 loadPending 의 PENDING 조회가 맞는 값을 봄
+        tradeJournal.awaitFlushed();
+        MATCH_LOG.log().atInfo().setMessage("📚 저널 복구")
+                .addKeyValue("snapshotStocks", snapshot == null ? 0 : snapshot.books.size())
+                .addKeyValue("replayed", counts[0])
+                .addKeyValue("caughtUp", counts[1])
+                .addKeyValue("ms", System.currentTimeMillis() - startedAt)
+                .log();
+    }
+
+    private void replay(OrderEvent e) {
+        if (e.type() == OrderEvent.DROPPED) {
+            recovered.remove(e.stockCode());
+            return;
+        }
+        Recovered r = recovered(e.stockCode());
+        OrderBook book = r.book();
+        switch (e.type()) {
+            case OrderEvent.ACCEPTED -> book.add(e.offerId(), e.accountId(), e.side(), e.price(), e.qty());
+            case OrderEvent.FILLED, OrderEvent.PARTIAL -> book.reduce(e.offerId(), e.side(), e.limitPrice(), e.qty());
+            case OrderEvent.CANCELED -> book.remove(e.offerId(), e.side(), e.price());
+            default -> { }
+        }
+        r.known().add(e.offerId());
+    }
+
+    // DB 에 들어가기 전에 멈춘 체결/취소를 다시 반영. 원장은 DB 기준으로 적재되었으므로 같은 건을 원장에도 반영
+    // 취소는 PENDING 인 주문만 닫으므로 이미 반영된 건을 다시 봐도 무해함
+    private void catchUp(long seq, OrderEvent e) {
+        if (e.isFill()) {
+            Fill fill = e.toFill();
+            accountLedger.commit(fill);
+            // 저널에 남은 매칭 시각 (시각 필드 이전 레코드는 지금)
+            tradeJournal.append(fill, seq, e.eventAt() > 0 ? e.eventAt() : System.currentTimeMillis());
+        } else if (e.type() == OrderEvent.CANCELED
+                && offerRepository.closeOffer(e.offerId(), OfferStatus.PENDING, OfferStatus.CANCELED) > 0
+                && "BUY".equals(e.side())) {
+            accountLedger.release(e.accountId(), e.price() * e.qty());
+        }
+    }
+
+    private Recovered recovered(String stockCode) {
+        return recovered.computeIfAbsent(stockCode, c -> new Recovered(new OrderBook(c), new HashSet<>()));
+    }
+
+    /* ===== 종목 배정 ===== */
+
+    // 새로 맡게 된 종목들의 주문을 호가창에 적재.
+    // 저널에서 복구한 종목은 복구된 호가창을 쓰고, DB 에서는 저널이 모르는 주문(접수 직후 종료 등)만 더함
+    public void loadPending(Predicate<String> owns) throws InterruptedException {
+        awaitPersisted();
+        Map<String, Set<Long>> known = new HashMap<>();
+        for (String stockCode : new ArrayList<>(recovered.keySet())) {
+            if (!owns.test(stockCode)) continue;
+            Recovered r = recovered.remove(stockCode);
+            if (r == null) continue;
+            known.put(stockCode, r.known());
+            shardFor(stockCode).submitInstall(r.book());
+        }
+
+        int loaded = 0;
+        for (Offer offer : offerRepository.findPendingWithStock(OfferStatus.PENDING)) {
+            String stockCode = offer.getStock().getStockCode();
+            if (!owns.test(stockCode)) continue;
+            Set<Long> ids = known.get(stockCode);
+            if (ids != null && ids.contains(offer.getOfferId())) continue;
+            onOfferAccepted(stockCode, offer);
+            loaded++;
+        }
+        MATCH_LOG.log().info("📚 호가창 적재: 저널 복구 {}종목, DB PENDING {}건", known.size(), loaded);
+    }
+
+    // 지금까지 매칭된 체결이 모두 DB 에 들어갈 때까지 대기.
+    // 전에 내려놓은 종목을 다시 맡을 때, 샤드/저널/TradeJournal 큐에 남은 체결이 반영되기 전의 잔량을 읽으면 두 번 체결된다
+    private void awaitPersisted() throws InterruptedException {
+        for (MatchingShard shard : shards) {
+            shard.submitBarrier().join();
+        }
+        eventLog.awaitCommitted();
+        tradeJournal.awaitFlushed();
+    }
+
+    // 더 이상 맡지 않는 종목의 호가창 폐기 (주문은 DB 에 PENDING 으로 남아 있고 새 담당이 다시 적재).
+    // 새 담당은 DB 의 체결 수량으로 잔량을 정하므로, 폐기 전에 매칭된 체결이 DB 에 들어갈 때까지 timeoutMs 만큼 기다림.
+    // 시간 안에 끝나지 않으면 false
+    public boolean drop(Predicate<String> owns, long timeoutMs) throws InterruptedException {
+        for (MatchingShard shard : shards) {
+            shard.submitDrop(owns);
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        for (MatchingShard shard : shards) {
+            try {
+                shard.submitBarrier().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                return false;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return eventLog.awaitCommitted(deadline) && tradeJournal.awaitFlushed(deadline);
+    }
+
+    // 신규 주문 (DB 커밋 이후 호출)
+    public void onOfferAccepted(String stockCode, Offer offer) {
+        shardFor(stockCode).submitOffer(stockCode, offer.getOfferId(), offer.getAccount().getAccountId(),
+                offer.getOfferSide(), offer.getOfferPrice(), offer.getOfferCnt() - offer.getOfferFilledCnt());
+    }
+
+    // 주문 취소 요청: 호가창에서 빠진 잔량을 돌려줌 (0 이면 이미 전부 체결). 저널 사용 시 취소 이벤트 fsync 후 완료
+    public CompletableFuture<Integer> cancel(String stockCode, Offer offer) {
+        return shardFor(stockCode).submitCancel(stockCode, offer.getOfferId(), offer.getAccount().getAccountId(),
+                offer.getOfferSide(), offer.getOfferPrice());
+    }
+
+    // 실시간 체결 수신 (체결가, 체결량, 파싱 시각 System.nanoTime)
+    public void onTick(String stockCode, long price, long volume, long receivedAt) {
+        shardFor(stockCode).submitTick(stockCode, price, volume, receivedAt);
+    }
+
+    /* ===== 스냅샷 ===== */
+
+    // 모든 샤드의 호가창 사본을 기준점과 함께 저장하고, 더 이상 필요 없는 저널 세그먼트를 정리
+    @Scheduled(fixedDelayString = "${orders.snapshot-interval-ms:60000}", initialDelayString = "${orders.snapshot-interval-ms:60000}")
+    public void snapshot() {
+        if (!eventLog.isEnabled() || eventLog.lastSeq() == lastSnapshotSeq) return;
+        try {
+            List<CompletableFuture<MatchingShard.Capture>> futures = new ArrayList<>(shards.length);
+            for (MatchingShard shard : shards) {
+                futures.add(shard.submitSnapshot());
+            }
+            Map<Integer, Long> marks = new HashMap<>();
+            Map<String, List<OrderSnapshot.Resting>> books = new HashMap<>();
+            for (CompletableFuture<MatchingShard.Capture> f : futures) {
+                MatchingShard.Capture capture = f.join();
+                marks.put(capture.shard(), capture.mark());
+                books.putAll(capture.books());
+            }
+
+            OrderSnapshot snapshot = new OrderSnapshot(marks, books);
+            snapshot.write(eventLog.dir());
+            OrderSnapshot.prune(eventLog.dir(), 2);
+            // 직전 스냅샷 기준점 이전이면서 DB 에도 반영된 이벤트만 지움
+            eventLog.prune(Math.min(previousLowestMark, tradeJournal.checkpoint() + 1));
+            previousLowestMark = snapshot.lowestMark();
+            lastSnapshotSeq = eventLog.lastSeq();
+            MATCH_LOG.log().info("📸 호가창 스냅샷: 종목 {}개 (seq {})", books.size(), lastSnapshotSeq);
+        } catch (Exception e) {
+            MATCH_LOG.log().warn("⚠️ 호가창 스냅샷 실패", e);
+        }
+    }
+
+    private MatchingShard shardFor(String stockCode) {
+        return shards[Math.floorMod(stockCode.hashCode(), shards.length)];
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (MatchingShard shard : shards) {
+            shard.shutdown();
+        }
+    }
+}
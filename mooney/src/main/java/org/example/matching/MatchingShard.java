@@ -0,0 +1,173 @@
+package org.example.matching;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import org.example.StageLog;
+import org.example.service.AccountLedger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * 단일 스레드 매칭 샤드.
+ * 자기에게 배정된 종목의 호가창을 독점 소유하고, 체결/신규주문 이벤트를 도착 순서대로 처리한다.
+ * 호가창을 바꾼 이벤트는 같은 스레드에서 주문 이벤트 저널에 넘기므로 저널 안에서 종목별 순서가 유지된다.
+ */
+class MatchingShard {
+
+    // 스냅샷 한 샤드분: 호가창 사본과 기준점 seq
+    record Capture(int shard, Map<String, List<OrderSnapshot.Resting>> books, long mark) {}
+
+    // 엔진이 모든 샤드에 같이 넘기는 지표: 틱 수신→매칭 완료 시간, 체결 수, 호가창에 걸린 주문 수
+    record Meters(Timer matchLatency, Counter fills, AtomicLong resting) {}
+
+    private final int index;
+    private final OrderEventLog eventLog;
+    private final AccountLedger accountLedger;
+    private final List<OrderBookListener> listeners;
+    private final Meters meters;
+    private final StageLog fillLog;
+
+    // 샤드 스레드 전용 → 동기화 불필요
+    private final Map<String, OrderBook> books = new HashMap<>();
+    private final ExecutorService executor;
+
+    MatchingShard(int index, OrderEventLog eventLog, AccountLedger accountLedger, List<OrderBookListener> listeners,
+                  Meters meters, StageLog fillLog) {
+        this.meters = meters;
+        this.fillLog = fillLog;
+        this.index = index;
+        this.eventLog = eventLog;
+        this.accountLedger = accountLedger;
+        this.listeners = listeners;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "matching-shard-" + index);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    void submitOffer(String stockCode, long offerId, long accountId, String side, long price, int qty) {
+        executor.execute(() -> {
+            OrderBook book = books.computeIfAbsent(stockCode, OrderBook::new);
+            boolean wasEmpty = book.isEmpty();
+            book.add(offerId, accountId, side, price, qty);
+            meters.resting().incrementAndGet();
+            eventLog.accepted(index, stockCode, offerId, accountId, side, price, qty);
+            if (wasEmpty) {
+                for (OrderBookListener l : listeners) l.onSymbolActive(stockCode);
+            }
+        });
+    }
+
+    // 취소: 호가창에서 빠진 잔량 (이미 전부 체결되어 없으면 0). 잔량이 있으면 취소 이벤트가 저널에 fsync 된 뒤 완료
+    CompletableFuture<Integer> submitCancel(String stockCode, long offerId, long accountId, String side, long price) {
+        return CompletableFuture.supplyAsync(() -> {
+            OrderBook book = books.get(stockCode);
+            if (book == null) return CompletableFuture.completedFuture(0);
+            int remaining = book.remove(offerId, side, price);
+            if (remaining == 0) return CompletableFuture.completedFuture(0);
+            meters.resting().decrementAndGet();
+            CompletableFuture<Long> ack = eventLog.canceled(index, stockCode, offerId, accountId, side, price, remaining);
+            if (book.isEmpty()) notifyIdle(stockCode);
+            return ack.thenApply(seq -> remaining);
+        }, executor).thenCompose(f -> f);
+    }
+
+    // 저널/스냅샷에서 복구한 호가창을 그대로 넘겨받음 (이미 저널에 있는 주문이므로 다시 기록하지 않음)
+    void submitInstall(OrderBook book) {
+        executor.execute(() -> {
+            if (book.isEmpty()) return;
+            books.put(book.getStockCode(), book);
+            meters.resting().addAndGet(book.size());
+            for (OrderBookListener l : listeners) l.onSymbolActive(book.getStockCode());
+        });
+    }
+
+    // 호가창 사본을 뜨고 같은 스레드에서 기준점을 저널에 넣음 → 기준점 이전 이벤트는 모두 사본에 반영되어 있음
+    CompletableFuture<Capture> submitSnapshot() {
+        return CompletableFuture.supplyAsync(() -> {
+            Map<String, List<OrderSnapshot.Resting>> copy = new HashMap<>();
+            for (Map.Entry<String, OrderBook> e : books.entrySet()) {
+                List<OrderSnapshot.Resting> orders = new ArrayList<>();
+                e.getValue().forEach((offerId, accountId, side, price, qty) ->
+                        orders.add(new OrderSnapshot.Resting(offerId, accountId, side, price, qty)));
+                if (!orders.isEmpty()) copy.put(e.getKey(), orders);
+            }
+            return eventLog.mark(index).thenApply(mark -> new Capture(index, copy, mark));
+        }, executor).thenCompose(f -> f);
+    }
+
+    // 앞서 넣은 작업이 모두 처리되면 완료
+    CompletableFuture<Void> submitBarrier() {
+        return CompletableFuture.runAsync(() -> { }, executor);
+    }
+
+    void submitDrop(Predicate<String> matches) {
+        executor.execute(() -> {
+            Iterator<Map.Entry<String, OrderBook>> it = books.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, OrderBook> e = it.next();
+                if (!matches.test(e.getKey())) continue;
+                if (!e.getValue().isEmpty()) notifyIdle(e.getKey());
+                meters.resting().addAndGet(-e.getValue().size());
+                eventLog.dropped(index, e.getKey());
+                it.remove();
+            }
+        });
+    }
+
+    // receivedAt: 틱을 파싱한 시각 (System.nanoTime) → 큐 대기까지 포함한 매칭 지연 측정
+    void submitTick(String stockCode, long price, long volume, long receivedAt) {
+        executor.execute(() -> {
+            onTick(stockCode, price, volume);
+            meters.matchLatency().record(System.nanoTime() - receivedAt, TimeUnit.NANOSECONDS);
+        });
+    }
+
+    private void onTick(String stockCode, long price, long volume) {
+        OrderBook book = books.get(stockCode);
+        if (book == null) return;
+
+        // 잔고는 메모리 원장에 즉시, 저널 기록과 DB 저장은 전용 스레드가 묶어서 처리 (큐가 가득 차면 여기서 대기 = 배압)
+        int before = book.size();
+        List<Fill> fills = book.match(price, volume);
+        long matchedAt = System.currentTimeMillis();
+        for (Fill fill : fills) {
+            accountLedger.commit(fill);
+            eventLog.filled(index, fill, matchedAt);
+            if (fillLog.sampled()) {
+                fillLog.log().atDebug().setMessage("fill")
+                        .addKeyValue("code", fill.stockCode())
+                        .addKeyValue("offerId", fill.offerId())
+                        .addKeyValue("side", fill.side())
+                        .addKeyValue("price", fill.price())
+                        .addKeyValue("qty", fill.qty())
+                        .addKeyValue("remaining", fill.remainingQty())
+                        .log();
+            }
+        }
+        if (fills.isEmpty()) return;
+        meters.fills().increment(fills.size());
+        meters.resting().addAndGet(book.size() - before);
+        if (book.isEmpty()) notifyIdle(stockCode);
+    }
+
+    private void notifyIdle(String stockCode) {
+        for (OrderBookListener l : listeners) l.onSymbolIdle(stockCode);
+    }
+
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,186 @@
+package org.example.matching;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 종목 하나의 호가창.
+ * 가격별 매수(bid)/매도(ask) 레벨마다 주문을 접수 순서(FIFO)대로 보관한다.
+ * 가격은 원 단위 long 이므로 체결가와 정수 비교로 맞춘다.
+ * 소유 샤드 스레드에서만 접근하므로 락을 두지 않는다.
+ */
+public class OrderBook {
+
+    // 레벨에 걸린 주문: 체결 저장에 필요한 값만 보관 (가격/방향은 레벨이 가짐). qty 는 부분 체결 후 남은 수량
+    private static final class RestingOffer {
+        final long offerId;
+        final long accountId;
+        int qty;
+
+        RestingOffer(long offerId, long accountId, int qty) {
+            this.offerId = offerId;
+            this.accountId = accountId;
+            this.qty = qty;
+        }
+    }
+
+    private final String stockCode;
+
+    // 둘 다 가격 오름차순 (최우선 매수호가는 맨 뒤, 최우선 매도호가는 맨 앞)
+    private final PriceLevels<Deque<RestingOffer>> bids = new PriceLevels<>();
+    private final PriceLevels<Deque<RestingOffer>> asks = new PriceLevels<>();
+    // 걸려 있는 주문 수
+    private int size;
+
+    public OrderBook(String stockCode) {
+        this.stockCode = stockCode;
+    }
+
+    public String getStockCode() {
+        return stockCode;
+    }
+
+    // 주문 등록: 같은 가격 레벨의 맨 뒤에 붙임
+    public void add(long offerId, long accountId, String side, long price, int qty) {
+        PriceLevels<Deque<RestingOffer>> levels = levels(side);
+        Deque<RestingOffer> level = levels.get(price);
+        if (level == null) {
+            level = new ArrayDeque<>();
+            levels.put(price, level);
+        }
+        level.addLast(new RestingOffer(offerId, accountId, qty));
+        size++;
+    }
+
+    /**
+     * 체결 틱 하나로 교차한 주문을 체결시킨다 (지정가 규칙).
+     * 매수는 지정가 >= 체결가, 매도는 지정가 <= 체결가 인 레벨을 유리한 가격부터 한 번에 훑고,
+     * 레벨 안에서는 접수 순서대로 채운다. 방향별로 틱 체결량까지만 체결하고 남은 수량은 호가창에 남긴다.
+     * 체결 가격은 틱 체결가.
+     */
+    public List<Fill> match(long price, long volume) {
+        boolean bidCrossed = !bids.isEmpty() && bids.priceAt(bids.size() - 1) >= price;
+        boolean askCrossed = !asks.isEmpty() && asks.priceAt(0) <= price;
+        if (volume <= 0 || (!bidCrossed && !askCrossed)) return Collections.emptyList();
+
+        List<Fill> fills = new ArrayList<>();
+        long left = volume;
+        while (left > 0 && !bids.isEmpty()) {
+            int top = bids.size() - 1;
+            long limit = bids.priceAt(top);
+            if (limit < price) break;
+            Deque<RestingOffer> level = bids.levelAt(top);
+            left = fillLevel(level, "BUY", limit, price, left, fills);
+            if (level.isEmpty()) bids.removeAt(top);
+        }
+        left = volume;
+        while (left > 0 && !asks.isEmpty()) {
+            long limit = asks.priceAt(0);
+            if (limit > price) break;
+            Deque<RestingOffer> level = asks.levelAt(0);
+            left = fillLevel(level, "SELL", limit, price, left, fills);
+            if (level.isEmpty()) asks.removeAt(0);
+        }
+        return fills;
+    }
+
+    // 레벨 앞에서부터 남은 체결량만큼 채움. 다 채운 주문은 레벨에서 뺌
+    private long fillLevel(Deque<RestingOffer> level, String side, long limit, long price, long left, List<Fill> out) {
+        while (left > 0 && !level.isEmpty()) {
+            RestingOffer o = level.peekFirst();
+            int qty = (int) Math.min(o.qty, left);
+            o.qty -= qty;
+            out.add(new Fill(stockCode, o.offerId, o.accountId, side, price, qty, limit, o.qty));
+            left -= qty;
+            if (o.qty == 0) {
+                level.pollFirst();
+                size--;
+            }
+        }
+        return left;
+    }
+
+    // 주문 취소: 해당 가격 레벨에서 주문을 찾아 제거하고 남아 있던 수량을 돌려줌 (없으면 0)
+    public int remove(long offerId, String side, long price) {
+        PriceLevels<Deque<RestingOffer>> levels = levels(side);
+        Deque<RestingOffer> level = levels.get(price);
+        if (level == null) return 0;
+
+        int remaining = 0;
+        for (Iterator<RestingOffer> it = level.iterator(); it.hasNext(); ) {
+            RestingOffer o = it.next();
+            if (o.offerId == offerId) {
+                remaining = o.qty;
+                it.remove();
+                size--;
+                break;
+            }
+        }
+        if (level.isEmpty()) levels.remove(price);
+        return remaining;
+    }
+
+    // 저널 재생용: 체결된 수량만큼 주문 잔량을 줄이고, 다 채워지면 레벨에서 뺌
+    public void reduce(long offerId, String side, long price, int qty) {
+        PriceLevels<Deque<RestingOffer>> levels = levels(side);
+        Deque<RestingOffer> level = levels.get(price);
+        if (level == null) return;
+
+        for (Iterator<RestingOffer> it = level.iterator(); it.hasNext(); ) {
+            RestingOffer o = it.next();
+            if (o.offerId == offerId) {
+                o.qty -= qty;
+                if (o.qty <= 0) {
+                    it.remove();
+                    size--;
+                }
+                break;
+            }
+        }
+        if (level.isEmpty()) levels.remove(price);
+    }
+
+    @FunctionalInterface
+    public interface RestingVisitor {
+        void accept(long offerId, long accountId, String side, long price, int qty);
+    }
+
+    // 걸려 있는 주문을 가격 오름차순, 레벨 안에서는 접수 순서대로 방문 (스냅샷용: 같은 순서로 add 하면 같은 호가창)
+    public void forEach(RestingVisitor visitor) {
+        visit(bids, "BUY", visitor);
+        visit(asks, "SELL", visitor);
+    }
+
+    private static void visit(PriceLevels<Deque<RestingOffer>> levels, String side, RestingVisitor visitor) {
+        for (int i = 0; i < levels.size(); i++) {
+            long price = levels.priceAt(i);
+            for (RestingOffer o : levels.levelAt(i)) {
+                visitor.accept(o.offerId, o.accountId, side, price, o.qty);
+            }
+        }
+    }
+
+    public void clear() {
+        bids.clear();
+        size = 0;
+        asks.clear();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return bids.isEmpty() && asks.isEmpty();
+    }
+
+    private PriceLevels<Deque<RestingOffer>> levels(String side) {
+        if ("BUY".equals(side)) return bids;
+        if ("SELL".equals(side)) return asks;
+        throw new IllegalArgumentException("알 수 없는 주문 방향: " + side);
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.matching;
+
+/**
+ * 종목별 호가창 활성/비활성 알림.
+ * 매칭 샤드 스레드에서 호출되므로 구현체는 블로킹 없이 바로 반환해야 한다.
+ */
+public interface OrderBookListener {
+
+    // 비어 있던 호가창에 첫 주문이 걸림
+    void onSymbolActive(String stockCode);
+
+    // 마지막 주문이 체결/취소되어 호가창이 비었음
+    void onSymbolIdle(String stockCode);
+}
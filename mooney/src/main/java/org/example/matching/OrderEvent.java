@@ -0,0 +1,49 @@
+package org.example.matching;
+
+/**
+ * 주문 이벤트 저널의 레코드 한 건.
+ * price 는 ACCEPTED/CANCELED 에서는 지정가, FILLED/PARTIAL 에서는 체결가. limitPrice 는 항상 지정가.
+ * qty 는 접수/체결/취소 수량, remainingQty 는 이벤트 이후 호가창에 남은 수량.
+ * shard 는 기록 당시 샤드 번호 (스냅샷 기준점 비교용). eventAt 은 이벤트 시각 (epoch ms, 체결은 매칭 시각).
+ */
+public record OrderEvent(byte type, int shard, String stockCode, long offerId, long accountId, String side,
+                         long price, int qty, long limitPrice, int remainingQty, long eventAt) {
+
+    public static final byte ACCEPTED = 1;
+    public static final byte FILLED = 2;
+    public static final byte PARTIAL = 3;
+    public static final byte CANCELED = 4;
+    // 스냅샷 기준점: 같은 샤드의 이 이전 이벤트는 스냅샷에 반영됨
+    public static final byte MARK = 5;
+    // 샤드가 종목을 내려놓음 (파티션 회수). 재생 시 그 종목의 복구 상태를 버리고 DB 를 따름
+    public static final byte DROPPED = 6;
+
+    static OrderEvent accepted(int shard, String stockCode, long offerId, long accountId, String side, long price, int qty) {
+        return new OrderEvent(ACCEPTED, shard, stockCode, offerId, accountId, side, price, qty, price, qty, System.currentTimeMillis());
+    }
+
+    static OrderEvent filled(int shard, Fill fill, long matchedAt) {
+        return new OrderEvent(fill.remainingQty() == 0 ? FILLED : PARTIAL, shard, fill.stockCode(), fill.offerId(),
+                fill.accountId(), fill.side(), fill.price(), fill.qty(), fill.limitPrice(), fill.remainingQty(), matchedAt);
+    }
+
+    static OrderEvent canceled(int shard, String stockCode, long offerId, long accountId, String side, long price, int remaining) {
+        return new OrderEvent(CANCELED, shard, stockCode, offerId, accountId, side, price, remaining, price, 0, System.currentTimeMillis());
+    }
+
+    static OrderEvent mark(int shard) {
+        return new OrderEvent(MARK, shard, "", 0, 0, "BUY", 0, 0, 0, 0, System.currentTimeMillis());
+    }
+
+    static OrderEvent dropped(int shard, String stockCode) {
+        return new OrderEvent(DROPPED, shard, stockCode, 0, 0, "BUY", 0, 0, 0, 0, System.currentTimeMillis());
+    }
+
+    public boolean isFill() {
+        return type == FILLED || type == PARTIAL;
+    }
+
+    public Fill toFill() {
+        return new Fill(stockCode, offerId, accountId, side, price, qty, limitPrice, remainingQty);
+    }
+}
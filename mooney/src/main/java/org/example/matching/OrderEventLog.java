@@ -0,0 +1,367 @@
+package org.example.matching;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.example.StageLog;
+import org.example.service.TradeJournal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * 주문 이벤트 저널 (append-only, group commit).
+ * 매칭 샤드는 접수/체결/부분체결/취소 이벤트를 큐에 넣기만 하고, 전용 스레드가 모인 이벤트에 순번(seq)을 매겨
+ * 세그먼트 파일에 순차로 쓴 뒤 묶음당 한 번만 fsync 한다.
+ * fsync 가 끝난 체결만 TradeJournal 로 넘기므로 DB 의 offer/trade 테이블은 이 저널을 뒤따라 채워진다.
+ * 레코드: [int 길이][int CRC32][본문]. 끝이 잘린 레코드(쓰는 도중 종료)는 CRC 로 걸러 읽지 않는다.
+ * 본문 끝의 이벤트 시각은 나중에 붙은 필드라, 그 전에 쓴 레코드는 길이로 구분해 0 으로 읽는다.
+ * orders.journal.enabled=false 면 파일을 쓰지 않고 체결을 바로 TradeJournal 로 넘긴다.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderEventLog {
+
+    private static final StageLog JOURNAL_LOG = new StageLog("persist.journal", 1);
+
+    static final String SUFFIX = ".log";
+    private static final int MAX_RECORD_BYTES = 128;
+
+    private final TradeJournal tradeJournal;
+
+    @Value("${orders.journal.enabled:false}")
+    private boolean enabled;
+
+    @Value("${orders.journal.dir:./order-journal}")
+    private String dir;
+
+    @Value("${orders.journal.segment-mb:64}")
+    private int segmentMb;
+
+    @Value("${orders.journal.queue-capacity:65536}")
+    private int queueCapacity;
+
+    // 한 번의 fsync 로 묶을 최대 이벤트 수
+    @Value("${orders.journal.group-commit-max:1024}")
+    private int groupCommitMax;
+
+    @FunctionalInterface
+    public interface EventVisitor {
+        void onEvent(long seq, OrderEvent event) throws Exception;
+    }
+
+    private record Pending(OrderEvent event, CompletableFuture<Long> ack) {}
+
+    private BlockingQueue<Pending> queue;
+    private Thread writer;
+    private volatile boolean running = true;
+
+    // 세그먼트 시작 seq → 파일 (정리용)
+    private final ConcurrentSkipListMap<Long, Path> segments = new ConcurrentSkipListMap<>();
+    private FileChannel channel;
+    private long segmentBytes;
+    private ByteBuffer buffer;
+    private final CRC32 crc = new CRC32();
+    private long nextSeq;
+    private volatile long lastSeq;
+    // 큐에 넣은 이벤트 수 / 기록을 마치고 체결을 TradeJournal 로 넘긴 이벤트 수
+    private final AtomicLong enqueued = new AtomicLong();
+    private volatile long committed;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Path dir() {
+        return Path.of(dir);
+    }
+
+    public long lastSeq() {
+        return lastSeq;
+    }
+
+    // 재생이 끝난 뒤 호출: nextSeq 부터 새 세그먼트에 이어 씀
+    public void start(long nextSeq) throws IOException {
+        if (!enabled) return;
+        Files.createDirectories(dir());
+        try (Stream<Path> files = Files.list(dir())) {
+            files.filter(p -> p.getFileName().toString().endsWith(SUFFIX))
+                    .forEach(p -> segments.put(startSeqOf(p), p));
+        }
+        // 마지막 세그먼트가 비어 있으면 읽은 seq 보다 파일 이름의 시작 seq 가 큼
+        if (!segments.isEmpty()) nextSeq = Math.max(nextSeq, segments.lastKey());
+        this.nextSeq = nextSeq;
+        this.lastSeq = nextSeq - 1;
+        buffer = ByteBuffer.allocateDirect(groupCommitMax * MAX_RECORD_BYTES);
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        roll();
+
+        writer = new Thread(this::runWriter, "order-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+        JOURNAL_LOG.log().info("🧾 주문 이벤트 저널 시작: {} (seq {}~)", dir, nextSeq);
+    }
+
+    /* ===== 기록 (매칭 샤드 스레드) ===== */
+
+    void accepted(int shard, String stockCode, long offerId, long accountId, String side, long price, int qty) {
+        if (enabled) append(new Pending(OrderEvent.accepted(shard, stockCode, offerId, accountId, side, price, qty), null));
+    }
+
+    // matchedAt: 매칭 시각 (epoch ms) → 체결 이력의 체결 시각
+    void filled(int shard, Fill fill, long matchedAt) {
+        if (enabled) {
+            append(new Pending(OrderEvent.filled(shard, fill, matchedAt), null));
+        } else {
+            tradeJournal.append(fill, 0, matchedAt);
+        }
+    }
+
+    // 취소는 fsync 후 부여된 seq 로 완료. 호출자는 이 뒤에 DB 를 바꿔야 재기동 시 저널과 어긋나지 않음
+    CompletableFuture<Long> canceled(int shard, String stockCode, long offerId, long accountId, String side, long price, int remaining) {
+        if (!enabled) return CompletableFuture.completedFuture(0L);
+        CompletableFuture<Long> ack = new CompletableFuture<>();
+        append(new Pending(OrderEvent.canceled(shard, stockCode, offerId, accountId, side, price, remaining), ack));
+        return ack;
+    }
+
+    void dropped(int shard, String stockCode) {
+        if (enabled) append(new Pending(OrderEvent.dropped(shard, stockCode), null));
+    }
+
+    // 스냅샷 기준점. fsync 후 부여된 seq 로 완료
+    CompletableFuture<Long> mark(int shard) {
+        if (!enabled) return CompletableFuture.completedFuture(0L);
+        CompletableFuture<Long> ack = new CompletableFuture<>();
+        append(new Pending(OrderEvent.mark(shard), ack));
+        return ack;
+    }
+
+    // 큐가 가득 차면 자리가 날 때까지 호출 스레드를 막는다 (배압)
+    private void append(Pending pending) {
+        try {
+            queue.put(pending);
+            enqueued.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /* ===== group commit (저널 스레드) ===== */
+
+    private void runWriter() {
+        List<Pending> batch = new ArrayList<>(groupCommitMax);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(50, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                // fsync 하는 동안 쌓인 이벤트가 다음 묶음이 됨
+                queue.drainTo(batch, groupCommitMax - 1);
+                commitWithRetry(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // 디스크에 남기지 못한 이벤트를 건너뛰면 DB 와 호가창이 어긋나므로 성공할 때까지 재시도 (그동안 샤드는 배압으로 대기)
+    private void commitWithRetry(List<Pending> batch) throws InterruptedException {
+        long firstSeq = nextSeq;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                commit(batch, firstSeq);
+                break;
+            } catch (IOException e) {
+                JOURNAL_LOG.log().atError().setMessage("⚠️ 주문 저널 기록 실패").addKeyValue("attempt", attempt)
+                        .addKeyValue("events", batch.size()).setCause(e).log();
+                Thread.sleep(Math.min(1000L, 100L * attempt));
+            }
+        }
+
+        long seq = firstSeq;
+        for (Pending p : batch) {
+            OrderEvent e = p.event();
+            if (e.isFill()) tradeJournal.append(e.toFill(), seq, e.eventAt());
+            if (p.ack() != null) p.ack().complete(seq);
+            seq++;
+        }
+        committed += batch.size();
+    }
+
+    // 이 호출 전에 들어온 이벤트가 모두 기록되고 그 체결이 TradeJournal 에 넘어갈 때까지 대기
+    void awaitCommitted() throws InterruptedException {
+        long target = enqueued.get();
+        while (committed < target) {
+            Thread.sleep(1);
+        }
+    }
+
+    // 마감 시각(System.nanoTime 기준)까지만 기다림. 그 안에 다 넘어가면 true
+    boolean awaitCommitted(long deadline) throws InterruptedException {
+        long target = enqueued.get();
+        while (committed < target) {
+            if (System.nanoTime() - deadline >= 0) return false;
+            Thread.sleep(1);
+        }
+        return true;
+    }
+
+    private void commit(List<Pending> batch, long firstSeq) throws IOException {
+        buffer.clear();
+        long seq = firstSeq;
+        for (Pending p : batch) {
+            encode(seq++, p.event(), buffer);
+        }
+        buffer.flip();
+        if (segmentBytes > 0 && segmentBytes + buffer.remaining() > segmentMb * 1024L * 1024L) {
+            nextSeq = firstSeq;
+            roll();
+        }
+        // 실패한 재시도가 이미 일부를 썼을 수 있으므로 묶음 시작 위치부터 다시 씀
+        long position = segmentBytes;
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        channel.force(false);
+        segmentBytes = position;
+        nextSeq = seq;
+        lastSeq = seq - 1;
+    }
+
+    private void roll() throws IOException {
+        if (channel != null) channel.close();
+        // 이전 실행의 세그먼트 끝에 잘린 레코드가 있을 수 있으므로 이어 쓰지 않고 항상 새 파일
+        Path path = dir().resolve(String.format("orders-%020d%s", nextSeq, SUFFIX));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        segmentBytes = 0;
+        segments.put(nextSeq, path);
+    }
+
+    // 모든 이벤트의 seq 가 bound 보다 작은 세그먼트 삭제 (현재 쓰는 세그먼트는 제외)
+    public void prune(long bound) {
+        if (!enabled) return;
+        Long[] starts = segments.keySet().toArray(new Long[0]);
+        for (int i = 0; i + 1 < starts.length; i++) {
+            if (starts[i + 1] > bound) break;
+            Path path = segments.remove(starts[i]);
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                JOURNAL_LOG.log().warn("⚠️ 주문 저널 세그먼트 삭제 실패: {}", path, e);
+            }
+        }
+    }
+
+    /* ===== 인코딩 / 읽기 ===== */
+
+    private void encode(long seq, OrderEvent e, ByteBuffer out) {
+        int start = out.position();
+        out.position(start + 8);
+        out.putLong(seq);
+        out.put(e.type());
+        out.putShort((short) e.shard());
+        byte[] code = e.stockCode().getBytes(StandardCharsets.US_ASCII);
+        out.put((byte) code.length);
+        out.put(code);
+        out.putLong(e.offerId());
+        out.putLong(e.accountId());
+        out.put((byte) ("BUY".equals(e.side()) ? 0 : 1));
+        out.putLong(e.price());
+        out.putInt(e.qty());
+        out.putLong(e.limitPrice());
+        out.putInt(e.remainingQty());
+        out.putLong(e.eventAt());
+        int length = out.position() - start - 8;
+
+        crc.reset();
+        crc.update(out.duplicate().position(start + 8).limit(start + 8 + length));
+        out.putInt(start, length);
+        out.putInt(start + 4, (int) crc.getValue());
+    }
+
+    /** 세그먼트를 seq 순으로 읽어 방문. 마지막으로 읽은 seq (없으면 0) */
+    public static long read(Path dir, EventVisitor visitor) throws Exception {
+        if (!Files.isDirectory(dir)) return 0;
+        List<Path> files;
+        try (Stream<Path> list = Files.list(dir)) {
+            files = list.filter(p -> p.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+        }
+
+        long last = 0;
+        CRC32 crc = new CRC32();
+        byte[] code = new byte[255];
+        for (Path file : files) {
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+                while (buf.remaining() >= 8) {
+                    int length = buf.getInt();
+                    int checksum = buf.getInt();
+                    if (length <= 0 || length > buf.remaining()) break;
+                    crc.reset();
+                    crc.update(buf.duplicate().limit(buf.position() + length));
+                    if ((int) crc.getValue() != checksum) break; // 잘린 꼬리
+
+                    int end = buf.position() + length;
+                    long seq = buf.getLong();
+                    byte type = buf.get();
+                    int shard = buf.getShort();
+                    int codeLength = buf.get() & 0xFF;
+                    buf.get(code, 0, codeLength);
+                    String stockCode = new String(code, 0, codeLength, StandardCharsets.US_ASCII);
+                    long offerId = buf.getLong();
+                    long accountId = buf.getLong();
+                    String side = buf.get() == 0 ? "BUY" : "SELL";
+                    long price = buf.getLong();
+                    int qty = buf.getInt();
+                    long limitPrice = buf.getLong();
+                    int remaining = buf.getInt();
+                    long eventAt = buf.position() < end ? buf.getLong() : 0;
+                    buf.position(end);
+
+                    if (seq <= last) continue; // 같은 seq 가 또 나오면 앞의 것만
+                    last = seq;
+                    visitor.onEvent(seq, new OrderEvent(type, shard, stockCode, offerId, accountId, side,
+                            price, qty, limitPrice, remaining, eventAt));
+                }
+            } catch (IOException e) {
+                throw new IOException("주문 저널 읽기 실패: " + file, e);
+            }
+        }
+        return last;
+    }
+
+    private static long startSeqOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring("orders-".length(), name.length() - SUFFIX.length()));
+    }
+
+    // 종료 시 큐에 남은 이벤트까지 기록
+    @PreDestroy
+    public void stop() throws Exception {
+        running = false;
+        if (writer != null) writer.join(TimeUnit.SECONDS.toMillis(10));
+        if (channel != null) channel.close();
+    }
+}
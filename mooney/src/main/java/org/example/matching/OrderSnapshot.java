@@ -0,0 +1,150 @@
+package org.example.matching;
+
+import org.example.StageLog;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * 종목별 호가창 스냅샷 (snapshot-기준seq.snap).
+ * marks 는 샤드 번호 → 그 샤드의 스냅샷 기준점 seq. 샤드 i 의 이벤트 중 seq 가 marks[i] 보다 큰 것만 재생하면 된다.
+ * 임시 파일에 쓰고 fsync 후 이름을 바꾸므로 중간에 죽어도 직전 스냅샷이 남는다.
+ */
+final class OrderSnapshot {
+
+    private static final StageLog SNAPSHOT_LOG = new StageLog("match.snapshot", 1);
+
+    private static final int MAGIC = 0x4D4F5331; // "MOS1"
+    private static final String SUFFIX = ".snap";
+
+    record Resting(long offerId, long accountId, String side, long price, int qty) {}
+
+    final Map<Integer, Long> marks;
+    final Map<String, List<Resting>> books;
+
+    OrderSnapshot(Map<Integer, Long> marks, Map<String, List<Resting>> books) {
+        this.marks = marks;
+        this.books = books;
+    }
+
+    long mark(int shard) {
+        return marks.getOrDefault(shard, 0L);
+    }
+
+    long lowestMark() {
+        return marks.values().stream().mapToLong(Long::longValue).min().orElse(0);
+    }
+
+    void write(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        long highest = marks.values().stream().mapToLong(Long::longValue).max().orElse(0);
+        Path target = dir.resolve(String.format("snapshot-%020d%s", highest, SUFFIX));
+        Path tmp = dir.resolve(target.getFileName() + ".tmp");
+
+        try (FileOutputStream file = new FileOutputStream(tmp.toFile())) {
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file), new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(MAGIC);
+            out.writeInt(marks.size());
+            for (Map.Entry<Integer, Long> e : marks.entrySet()) {
+                out.writeShort(e.getKey());
+                out.writeLong(e.getValue());
+            }
+            out.writeInt(books.size());
+            for (Map.Entry<String, List<Resting>> e : books.entrySet()) {
+                out.writeUTF(e.getKey());
+                out.writeInt(e.getValue().size());
+                for (Resting r : e.getValue()) {
+                    out.writeLong(r.offerId());
+                    out.writeLong(r.accountId());
+                    out.writeBoolean("BUY".equals(r.side()));
+                    out.writeLong(r.price());
+                    out.writeInt(r.qty());
+                }
+            }
+            out.flush();
+            long checksum = checked.getChecksum().getValue();
+            out.writeLong(checksum);
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // 가장 최근의 온전한 스냅샷 (없으면 null). 손상된 파일은 건너뛰고 이전 것을 씀
+    static OrderSnapshot readLatest(Path dir) throws IOException {
+        List<Path> snapshots = list(dir);
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            Path path = snapshots.get(i);
+            try {
+                return read(path);
+            } catch (IOException e) {
+                SNAPSHOT_LOG.log().warn("⚠️ 스냅샷 손상, 이전 스냅샷 사용: {} ({})", path, e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    private static OrderSnapshot read(Path path) throws IOException {
+        try (InputStream file = new BufferedInputStream(Files.newInputStream(path))) {
+            CheckedInputStream checked = new CheckedInputStream(file, new CRC32());
+            DataInputStream in = new DataInputStream(checked);
+            if (in.readInt() != MAGIC) throw new IOException("형식이 다름");
+
+            Map<Integer, Long> marks = new HashMap<>();
+            int shardCount = in.readInt();
+            for (int i = 0; i < shardCount; i++) {
+                marks.put((int) in.readShort(), in.readLong());
+            }
+            Map<String, List<Resting>> books = new HashMap<>();
+            int bookCount = in.readInt();
+            for (int i = 0; i < bookCount; i++) {
+                String stockCode = in.readUTF();
+                int n = in.readInt();
+                List<Resting> orders = new ArrayList<>(n);
+                for (int j = 0; j < n; j++) {
+                    orders.add(new Resting(in.readLong(), in.readLong(), in.readBoolean() ? "BUY" : "SELL",
+                            in.readLong(), in.readInt()));
+                }
+                books.put(stockCode, orders);
+            }
+            long expected = checked.getChecksum().getValue();
+            if (new DataInputStream(file).readLong() != expected) throw new IOException("체크섬 불일치");
+            return new OrderSnapshot(marks, books);
+        }
+    }
+
+    // 최근 keep 개만 남김
+    static void prune(Path dir, int keep) throws IOException {
+        List<Path> snapshots = list(dir);
+        for (int i = 0; i < snapshots.size() - keep; i++) {
+            Files.deleteIfExists(snapshots.get(i));
+        }
+    }
+
+    private static List<Path> list(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) return new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            return new ArrayList<>(files.filter(p -> p.getFileName().toString().endsWith(SUFFIX))
+                    .sorted(Comparator.comparing(Path::getFileName))
+                    .toList());
+        }
+    }
+}
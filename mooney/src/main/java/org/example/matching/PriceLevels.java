@@ -0,0 +1,78 @@
+package org.example.matching;
+
+import java.util.Arrays;
+
+/**
+ * long 가격 → 레벨 정렬 맵.
+ * 가격은 오름차순 long[] 에, 레벨은 같은 인덱스의 배열에 둔다 (박싱 없는 이진 탐색).
+ * 한 종목의 활성 호가 수는 많지 않으므로 삽입/삭제 시 배열 이동 비용은 작다.
+ * 소유 샤드 스레드에서만 접근.
+ */
+final class PriceLevels<L> {
+
+    private long[] prices = new long[16];
+    private Object[] levels = new Object[16];
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    L get(long price) {
+        int i = Arrays.binarySearch(prices, 0, size, price);
+        return i >= 0 ? (L) levels[i] : null;
+    }
+
+    void put(long price, L level) {
+        int i = Arrays.binarySearch(prices, 0, size, price);
+        if (i >= 0) {
+            levels[i] = level;
+            return;
+        }
+        i = -i - 1;
+        if (size == prices.length) {
+            prices = Arrays.copyOf(prices, size * 2);
+            levels = Arrays.copyOf(levels, size * 2);
+        }
+        System.arraycopy(prices, i, prices, i + 1, size - i);
+        System.arraycopy(levels, i, levels, i + 1, size - i);
+        prices[i] = price;
+        levels[i] = level;
+        size++;
+    }
+
+    @SuppressWarnings("unchecked")
+    L remove(long price) {
+        int i = Arrays.binarySearch(prices, 0, size, price);
+        if (i < 0) return null;
+        L level = (L) levels[i];
+        removeAt(i);
+        return level;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    // 오름차순 i 번째 가격/레벨
+    long priceAt(int i) {
+        return prices[i];
+    }
+
+    @SuppressWarnings("unchecked")
+    L levelAt(int i) {
+        return (L) levels[i];
+    }
+
+    void removeAt(int i) {
+        System.arraycopy(prices, i + 1, prices, i, size - i - 1);
+        System.arraycopy(levels, i + 1, levels, i, size - i - 1);
+        levels[--size] = null;
+    }
+
+    void clear() {
+        Arrays.fill(levels, 0, size, null);
+        size = 0;
+    }
+}
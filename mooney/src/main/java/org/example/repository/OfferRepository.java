@@ -1,15 +1,35 @@
 package org.example.repository;
 
+import org.example.dto.OrderStatusDto;
 import org.example.entity.Offer;
+import org.example.entity.OfferStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface OfferRepository extends JpaRepository<Offer, Long> {
-    List<Offer> findByStock_StockCodeAndOfferStatus(String stockCode, String pending);
+    List<Offer> findByStock_StockCodeAndOfferStatusOrderByOfferIdAsc(String stockCode, OfferStatus status);
 
-    @Query("SELECT DISTINCT o.stock.stockCode FROM Offer o WHERE o.offerStatus = :status")
-    List<String> findDistinctStockCodesByOfferStatus(@Param("status") String status);
+    // 호가창 적재용: 종목을 함께 가져오고 접수 순서대로 정렬
+    @Query("SELECT o FROM Offer o JOIN FETCH o.stock WHERE o.offerStatus = :status ORDER BY o.offerId")
+    List<Offer> findPendingWithStock(@Param("status") OfferStatus status);
+
+    @Query("SELECT o FROM Offer o JOIN FETCH o.stock WHERE o.offerId = :offerId")
+    Optional<Offer> findWithStock(@Param("offerId") Long offerId);
+
+    // 주문번호 조회 (접수 응답의 orderId → offer_id/상태)
+    @Query("SELECT new org.example.dto.OrderStatusDto(o.orderId, o.offerId, o.offerStatus, o.offerCnt, o.offerFilledCnt) " +
+           "FROM Offer o WHERE o.orderId = :orderId")
+    Optional<OrderStatusDto> findStatusByOrderId(@Param("orderId") String orderId);
+
+    // 종료 상태로 전이 (from 상태일 때만 변경, 종료 시각 기록)
+    @Transactional
+    @Modifying
+    @Query("UPDATE Offer o SET o.offerStatus = :to, o.offerClosedAt = CURRENT_TIMESTAMP WHERE o.offerId = :offerId AND o.offerStatus = :from")
+    int closeOffer(@Param("offerId") Long offerId, @Param("from") OfferStatus from, @Param("to") OfferStatus to);
 }
@@ -0,0 +1,30 @@
+package org.example.repository;
+
+import org.example.dto.TradeHistoryDto;
+import org.example.entity.TradeHistory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+// 최신순 keyset 조회: history_id < before 범위를 인덱스로 바로 찾음 (offset 없음)
+public interface TradeHistoryRepository extends JpaRepository<TradeHistory, Long> {
+
+    @Query("""
+            SELECT new org.example.dto.TradeHistoryDto(h.historyId, h.offerId, h.accountId, h.stockCode, h.offerSide,
+                   h.tradePrice, h.tradeCnt, h.tradedAt)
+            FROM TradeHistory h
+            WHERE h.accountId = :accountId AND h.historyId < :before
+            ORDER BY h.historyId DESC""")
+    List<TradeHistoryDto> findByAccount(@Param("accountId") Long accountId, @Param("before") Long before, Pageable page);
+
+    @Query("""
+            SELECT new org.example.dto.TradeHistoryDto(h.historyId, h.offerId, h.accountId, h.stockCode, h.offerSide,
+                   h.tradePrice, h.tradeCnt, h.tradedAt)
+            FROM TradeHistory h
+            WHERE h.stockCode = :stockCode AND h.historyId < :before
+            ORDER BY h.historyId DESC""")
+    List<TradeHistoryDto> findByStock(@Param("stockCode") String stockCode, @Param("before") Long before, Pageable page);
+}
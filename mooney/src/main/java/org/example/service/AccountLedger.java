@@ -0,0 +1,161 @@
+package org.example.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.example.StageLog;
+import org.example.matching.Fill;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 계좌별 현금 원장 (메모리).
+ * 금액은 원 단위 long. 계좌마다 잔고(balance)와 주문 가능 금액(available = 잔고 - 미체결 매수 예약분)을 AtomicLong 으로 둔다.
+ * - 매수 접수: available 에서 예약 (부족하면 거절)
+ * - 체결: 매수는 balance 차감 (예약분은 이미 빠져 있음, 지정가보다 싸게 체결된 차액은 available 로 환원), 매도는 둘 다 증가
+ * - 취소: 예약분을 available 로 되돌림
+ * DB 에는 체결마다 balance_delta 행만 쌓이고(TradeJournal), 주기적으로 account.cash_balance 에 합산된다.
+ * 주문은 종목코드로 파티션되므로 한 계좌의 매수가 여러 인스턴스에서 접수된다. 메모리 원장은 자기 인스턴스의 예약만 알기 때문에
+ * 접수 배치는 lockSharedAvailable 로 DB 기준 금액을 함께 확인한다 (계좌 행 잠금으로 인스턴스 사이 직렬화).
+ */
+@Service
+@RequiredArgsConstructor
+@DependsOn("entityManagerFactory") // 기동 시 적재 쿼리가 스키마 생성 뒤에 돌도록
+public class AccountLedger {
+
+    private static final StageLog LEDGER_LOG = new StageLog("persist.ledger", 1);
+
+    // 기동 시 잔고 = 마지막 스냅샷 + 아직 합산 안 된 변동분
+    private static final String LOAD_BALANCE_SQL = """
+            SELECT a.account_id,
+                   a.cash_balance + COALESCE((SELECT SUM(d.amount) FROM balance_delta d WHERE d.account_id = a.account_id), 0)
+            FROM account a""";
+    private static final String LOAD_ONE_SQL = LOAD_BALANCE_SQL + " WHERE a.account_id = ?";
+    private static final String LOAD_RESERVED_SQL = """
+            SELECT account_id, SUM(offer_price * (offer_cnt - offer_filled_cnt)) FROM offer
+            WHERE offer_status = 0 AND offer_side = 'BUY'
+            GROUP BY account_id""";
+    private static final String LOCK_ACCOUNT_SQL = "SELECT account_id FROM account WHERE account_id = ? FOR UPDATE";
+    private static final String RESERVED_ONE_SQL = """
+            SELECT COALESCE(SUM(offer_price * (offer_cnt - offer_filled_cnt)), 0) FROM offer
+            WHERE account_id = ? AND offer_status = 0 AND offer_side = 'BUY'""";
+    private static final String MAX_DELTA_SQL = "SELECT COALESCE(MAX(delta_id), 0) FROM balance_delta";
+    private static final String SNAPSHOT_SQL = """
+            UPDATE account a SET cash_balance = cash_balance +
+                (SELECT SUM(d.amount) FROM balance_delta d WHERE d.account_id = a.account_id AND d.delta_id <= ?)
+            WHERE EXISTS (SELECT 1 FROM balance_delta d WHERE d.account_id = a.account_id AND d.delta_id <= ?)""";
+    private static final String PURGE_SQL = "DELETE FROM balance_delta WHERE delta_id <= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private static final class Balance {
+        final AtomicLong balance;
+        final AtomicLong available;
+
+        Balance(long balance, long reserved) {
+            this.balance = new AtomicLong(balance);
+            this.available = new AtomicLong(balance - reserved);
+        }
+    }
+
+    private final Map<Long, Balance> balances = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void load() {
+        Map<Long, Long> reserved = new ConcurrentHashMap<>();
+        jdbcTemplate.query(LOAD_RESERVED_SQL, rs -> {
+            reserved.put(rs.getLong(1), rs.getLong(2));
+        });
+        jdbcTemplate.query(LOAD_BALANCE_SQL, rs -> {
+            long accountId = rs.getLong(1);
+            balances.put(accountId, new Balance(rs.getLong(2), reserved.getOrDefault(accountId, 0L)));
+        });
+        LEDGER_LOG.log().info("💰 계좌 원장 적재: {}개", balances.size());
+    }
+
+    // 매수 주문 접수 시 예약. 주문 가능 금액이 모자라면 false (0 이하 금액은 주문 검증에서 걸러졌어야 함)
+    public boolean reserve(long accountId, long amount) {
+        requirePositive(amount);
+        AtomicLong available = entryOf(accountId).available;
+        long current;
+        do {
+            current = available.get();
+            if (current < amount) return false;
+        } while (!available.compareAndSet(current, current - amount));
+        return true;
+    }
+
+    // 예약 해제 (취소, 접수 롤백)
+    public void release(long accountId, long amount) {
+        requirePositive(amount);
+        entryOf(accountId).available.addAndGet(amount);
+    }
+
+    // 모든 인스턴스의 예약을 반영한 주문 가능 금액 = DB 잔고 - 저장된 미체결 매수 잔량.
+    // 계좌 행을 호출 트랜잭션이 끝날 때까지 잠그므로, READ COMMITTED 트랜잭션에서 부르면 다른 인스턴스가 먼저 커밋한 주문까지 보인다.
+    // 체결은 DB 에 늦게 반영되지만 아직 안 들어간 체결은 잔고보다 예약을 더 크게 남기므로 실제보다 적게 나올 뿐 넘치지 않음
+    public long lockSharedAvailable(long accountId) {
+        jdbcTemplate.query(LOCK_ACCOUNT_SQL, rs -> { }, accountId);
+        Long balance = jdbcTemplate.query(LOAD_ONE_SQL, rs -> rs.next() ? rs.getLong(2) : 0L, accountId);
+        Long reserved = jdbcTemplate.queryForObject(RESERVED_ONE_SQL, Long.class, accountId);
+        return (balance == null ? 0 : balance) - (reserved == null ? 0 : reserved);
+    }
+
+    // 음수 예약은 available 을 늘리고, 음수 해제는 검사 없이 줄이므로 둘 다 막음
+    private static void requirePositive(long amount) {
+        if (amount <= 0) throw new IllegalArgumentException("예약 금액은 0보다 커야 함: " + amount);
+    }
+
+    // 체결 반영 (매칭 샤드 스레드)
+    public void commit(Fill fill) {
+        Balance b = entryOf(fill.accountId());
+        long amount = fill.price() * fill.qty();
+        if ("BUY".equals(fill.side())) {
+            b.balance.addAndGet(-amount);
+            long improvement = (fill.limitPrice() - fill.price()) * fill.qty();
+            if (improvement != 0) b.available.addAndGet(improvement);
+        } else {
+            b.balance.addAndGet(amount);
+            b.available.addAndGet(amount);
+        }
+    }
+
+    public long availableOf(long accountId) {
+        return entryOf(accountId).available.get();
+    }
+
+    public long balanceOf(long accountId) {
+        return entryOf(accountId).balance.get();
+    }
+
+    // 기동 이후 생긴 계좌는 처음 볼 때 DB 에서 읽음
+    private Balance entryOf(long accountId) {
+        Balance b = balances.get(accountId);
+        return b != null ? b : balances.computeIfAbsent(accountId, id -> {
+            Long balance = jdbcTemplate.query(LOAD_ONE_SQL, rs -> rs.next() ? rs.getLong(2) : 0L, id);
+            return new Balance(balance == null ? 0 : balance, 0);
+        });
+    }
+
+    // balance_delta 를 account.cash_balance 에 합산하고 비움 (스냅샷 시점의 최대 delta_id 까지만)
+    @Scheduled(fixedDelayString = "${ledger.snapshot-interval-ms:60000}")
+    public void snapshot() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Long upTo = jdbcTemplate.queryForObject(MAX_DELTA_SQL, Long.class);
+                if (upTo == null || upTo == 0) return;
+                jdbcTemplate.update(SNAPSHOT_SQL, upTo, upTo);
+                jdbcTemplate.update(PURGE_SQL, upTo);
+            });
+        } catch (Exception e) {
+            LEDGER_LOG.log().warn("⚠️ 잔고 스냅샷 실패", e);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package org.example.service;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.example.StageLog;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -14,6 +15,8 @@ import java.time.LocalDateTime;
 @Service
 @RequiredArgsConstructor
 public class ApprovalKeyService {
+
+    private static final StageLog SESSION_LOG = new StageLog("feed.session", 1);
     // https://apiportal.koreainvestment.com/apiservice-apiservice?/oauth2/Approval
     // 웹소켓 접속 키를 발급을 위한 서비스 클래스
 
@@ -33,13 +36,19 @@ public class ApprovalKeyService {
     private LocalDateTime expireAt;
 
     // approvalKey 반환
-    public String getApprovalKey() {
+    public synchronized String getApprovalKey() {
         if (approvalKey == null || expireAt == null || LocalDateTime.now().isAfter(expireAt.minusMinutes(10))) {
             requestApprovalKey();
         }
         return approvalKey;
     }
 
+    // 웹소켓 접속이 계속 실패할 때 호출 -> 다음 조회 시 새로 발급
+    public synchronized void invalidate() {
+        this.approvalKey = null;
+        this.expireAt = null;
+    }
+
     // 스케줄러로 1시간마다 자동 실행 -> 갱신
     @Scheduled(fixedRate = 1000 * 60 * 60) // 1시간마다 체크
     public void refreshKeyIfNeeded() {
@@ -67,9 +76,9 @@ public class ApprovalKeyService {
             this.approvalKey = json.get("approval_key").asText();
             this.expireAt = LocalDateTime.now().plusHours(24); // 보통 24시간
 
-            System.out.println("✅ approval_key 발급 완료: " + approvalKey);
+            SESSION_LOG.log().info("✅ approval_key 발급 완료 (만료 {})", expireAt);
         } catch (Exception e) {
-            e.printStackTrace();
+            SESSION_LOG.log().error("⚠️ approval_key 발급 실패", e);
         }
     }
 }
@@ -0,0 +1,142 @@
+package org.example.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.example.KafkaConfig;
+import org.example.StageLog;
+import org.example.dto.BulkOfferResult;
+import org.example.dto.OfferDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * 대량 주문 접수 (NDJSON 한 줄에 주문 한 건).
+ * 요청 본문을 줄 단위로 읽는 대로 파싱/검증해 발행하고, 줄마다 결과를 입력 순서대로 응답에 흘려보낸다.
+ * 발행은 linger/batch/압축을 키운 전용 프로듀서를 써서 여러 주문이 한 요청(record batch)으로 묶여 나가게 한다.
+ * 발행 확인을 기다리는 주문은 max-in-flight 까지만 두고, 넘으면 가장 오래된 것부터 기다린다.
+ */
+@Service
+@RequiredArgsConstructor
+public class BulkOfferService {
+
+    private static final StageLog BULK_LOG = new StageLog("order.bulk", 1);
+
+    private final ProducerFactory<String, OfferDto> producerFactory;
+    private final OfferValidator offerValidator;
+    private final OfferService offerService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Value("${offer.bulk.linger-ms:20}")
+    private int lingerMs;
+
+    @Value("${offer.bulk.batch-size:262144}")
+    private int batchSize;
+
+    @Value("${offer.bulk.compression:lz4}")
+    private String compression;
+
+    @Value("${offer.bulk.max-in-flight:10000}")
+    private int maxInFlight;
+
+    private KafkaTemplate<String, OfferDto> kafkaTemplate;
+    private ObjectReader offerReader;
+
+    private record InFlight(long line, String orderId, CompletableFuture<SendResult<String, OfferDto>> ack) {}
+
+    // 기본 프로듀서 설정에 배치 관련 값만 덮어쓴 별도 템플릿 (단건 주문의 지연에는 영향 없음)
+    @PostConstruct
+    public void init() {
+        kafkaTemplate = new KafkaTemplate<>(producerFactory, Map.of(
+                ProducerConfig.LINGER_MS_CONFIG, lingerMs,
+                ProducerConfig.BATCH_SIZE_CONFIG, batchSize,
+                ProducerConfig.COMPRESSION_TYPE_CONFIG, compression));
+        offerReader = objectMapper.readerFor(OfferDto.class);
+    }
+
+    public void submit(InputStream in, OutputStream out) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        Deque<InFlight> inFlight = new ArrayDeque<>();
+        long lineNo = 0;
+        long accepted = 0;
+        long rejected = 0;
+
+        try (SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) continue;
+
+                OfferDto dto;
+                try {
+                    dto = offerReader.readValue(line);
+                } catch (JsonProcessingException e) {
+                    writer.write(BulkOfferResult.rejected(lineNo, null, "JSON 형식 오류: " + e.getOriginalMessage()));
+                    rejected++;
+                    continue;
+                }
+                String orderId = offerService.orderIdOf(dto.getIdempotencyKey());
+                // 컨슈머까지 가서야 버려질 주문은 여기서 거절
+                OfferValidator.Reason invalid = offerValidator.validate(dto);
+                if (invalid != null) {
+                    writer.write(BulkOfferResult.rejected(lineNo, orderId, invalid.describe(dto)));
+                    rejected++;
+                    continue;
+                }
+
+                dto.setOrderId(orderId);
+                inFlight.addLast(new InFlight(lineNo, orderId,
+                        kafkaTemplate.send(KafkaConfig.ORDER_REQUEST_TOPIC, dto.getStockCode(), dto)));
+
+                // 앞쪽부터 끝난 결과를 내보냄. 창이 차면 가장 오래된 발행을 기다림
+                while (!inFlight.isEmpty() && (inFlight.peekFirst().ack().isDone() || inFlight.size() > maxInFlight)) {
+                    if (writeResult(writer, inFlight.pollFirst())) accepted++; else rejected++;
+                }
+            }
+
+            // 본문 끝: 남은 주문을 바로 내보내고 결과를 모두 기다림
+            kafkaTemplate.flush();
+            while (!inFlight.isEmpty()) {
+                if (writeResult(writer, inFlight.pollFirst())) accepted++; else rejected++;
+            }
+        }
+        BULK_LOG.log().info("📦 대량 주문 접수: {}건 발행, {}건 거절", accepted, rejected);
+    }
+
+    private boolean writeResult(SequenceWriter writer, InFlight f) throws IOException {
+        try {
+            SendResult<String, OfferDto> result = f.ack().join();
+            writer.write(BulkOfferResult.accepted(f.line(), f.orderId(),
+                    result.getRecordMetadata().partition(), result.getRecordMetadata().offset()));
+            return true;
+        } catch (CompletionException e) {
+            writer.write(BulkOfferResult.rejected(f.line(), f.orderId(), "발행 실패: " + e.getCause().getMessage()));
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        kafkaTemplate.destroy();
+    }
+}
@@ -0,0 +1,146 @@
+package org.example.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.StageLog;
+import org.example.TradeWebSocketHandler;
+import org.example.marketdata.CandleSeries;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 실시간 체결 틱 → 종목별 OHLCV 봉 (기본 1초/1분/5분).
+ * 틱 경로에서는 링 버퍼의 현재 봉만 갱신하고, 화면 푸시와 DB 적재는 주기 작업에서 처리한다.
+ */
+@Service
+@RequiredArgsConstructor
+public class CandleService {
+
+    private static final StageLog CANDLE_LOG = new StageLog("persist.candle", 1);
+
+    private static final long KST_OFFSET_SEC = 9 * 3600;
+    private static final long DAY_SEC = 86_400;
+
+    private static final String INSERT_SQL = """
+            INSERT IGNORE INTO candle (stock_code, interval_sec, bar_start, open_price, high_price, low_price, close_price, volume)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)""";
+
+    private final TradeWebSocketHandler tradeWebSocketHandler;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${candles.intervals:1s,1m,5m}")
+    private String[] intervals;
+
+    // 주기별 보관 봉 수 (1초봉 5분, 1분봉 5시간, 5분봉 25시간)
+    @Value("${candles.capacity:300}")
+    private int capacity;
+
+    // 마감된 봉을 DB 에 적재할지
+    @Value("${candles.persist:false}")
+    private boolean persist;
+
+    private record ClosedBar(String stockCode, int intervalSec, CandleSeries.Bar bar) {}
+
+    // 종목코드 → 주기별 시리즈 (intervals 순서)
+    private final Map<String, CandleSeries[]> series = new ConcurrentHashMap<>();
+    private final Queue<ClosedBar> closedBars = new ConcurrentLinkedQueue<>();
+
+    /** 체결 한 건 반영. time 은 KIS 체결시각(HHMMSS, 한국시간) */
+    public void onTick(String stockCode, int time, long price, long volume) {
+        CandleSeries[] perInterval = series.get(stockCode);
+        if (perInterval == null) perInterval = series.computeIfAbsent(stockCode, c -> newSeries());
+
+        long epochSec = toEpochSec(time);
+        for (CandleSeries s : perInterval) {
+            CandleSeries.Bar closed = s.onTick(epochSec, price, volume);
+            if (closed != null && persist) closedBars.add(new ClosedBar(stockCode, s.intervalSec(), closed));
+        }
+    }
+
+    // 최근 봉 조회 (interval 예: "1m"). 없는 주기/종목이거나 limit 이 0 이하면 빈 목록 (요청 값 그대로 들어옴)
+    public List<CandleSeries.Bar> recent(String stockCode, String interval, int limit) {
+        CandleSeries[] perInterval = series.get(stockCode);
+        int idx = indexOf(interval);
+        if (perInterval == null || idx < 0) return List.of();
+        return perInterval[idx].recent(limit);
+    }
+
+    // 갱신된 현재 봉을 /ws/trade 구독자에게 (종목·주기별 최신 값만)
+    @Scheduled(fixedDelayString = "${candles.push-interval-ms:1000}")
+    public void push() {
+        for (Map.Entry<String, CandleSeries[]> e : series.entrySet()) {
+            CandleSeries[] perInterval = e.getValue();
+            for (int i = 0; i < perInterval.length; i++) {
+                CandleSeries.Bar bar = perInterval[i].drainDirty();
+                if (bar == null) continue;
+                String label = intervals[i].trim();
+                String json = "{\"type\":\"candle\",\"stock\":\"" + e.getKey() + "\",\"interval\":\"" + label
+                        + "\",\"t\":" + bar.start() + ",\"o\":" + bar.open() + ",\"h\":" + bar.high()
+                        + ",\"l\":" + bar.low() + ",\"c\":" + bar.close() + ",\"v\":" + bar.volume() + "}";
+                tradeWebSocketHandler.sendCandle(e.getKey(), label, json);
+            }
+        }
+    }
+
+    // 마감된 봉 일괄 적재
+    @Scheduled(fixedDelayString = "${candles.flush-interval-ms:5000}")
+    public void flush() {
+        if (closedBars.isEmpty()) return;
+        List<Object[]> args = new ArrayList<>();
+        ClosedBar c;
+        while ((c = closedBars.poll()) != null) {
+            CandleSeries.Bar b = c.bar();
+            args.add(new Object[]{c.stockCode(), c.intervalSec(), new Timestamp(b.start() * 1000),
+                    b.open(), b.high(), b.low(), b.close(), b.volume()});
+        }
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, args);
+        } catch (Exception e) {
+            CANDLE_LOG.log().warn("⚠️ 봉 저장 실패 ({}건 버림)", args.size(), e);
+        }
+    }
+
+    private CandleSeries[] newSeries() {
+        CandleSeries[] perInterval = new CandleSeries[intervals.length];
+        for (int i = 0; i < intervals.length; i++) {
+            perInterval[i] = new CandleSeries(parseSeconds(intervals[i].trim()), capacity);
+        }
+        return perInterval;
+    }
+
+    private int indexOf(String interval) {
+        for (int i = 0; i < intervals.length; i++) {
+            if (intervals[i].trim().equals(interval)) return i;
+        }
+        return -1;
+    }
+
+    // "1s" / "1m" / "5m" / "1h" → 초
+    private static int parseSeconds(String interval) {
+        int n = Integer.parseInt(interval.substring(0, interval.length() - 1));
+        return switch (interval.charAt(interval.length() - 1)) {
+            case 's' -> n;
+            case 'm' -> n * 60;
+            case 'h' -> n * 3600;
+            default -> throw new IllegalArgumentException("알 수 없는 봉 주기: " + interval);
+        };
+    }
+
+    // HHMMSS(한국시간) → epoch 초. 자정 직후 도착한 전날 틱은 전날로 (한국은 서머타임 없음)
+    private static long toEpochSec(int hhmmss) {
+        long secOfDay = (hhmmss / 10000) * 3600L + (hhmmss / 100 % 100) * 60L + hhmmss % 100;
+        long nowKst = System.currentTimeMillis() / 1000 + KST_OFFSET_SEC;
+        long dayStart = nowKst - Math.floorMod(nowKst, DAY_SEC);
+        if (secOfDay - (nowKst - dayStart) > 3600) dayStart -= DAY_SEC;
+        return dayStart + secOfDay - KST_OFFSET_SEC;
+    }
+}
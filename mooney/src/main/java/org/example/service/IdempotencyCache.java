@@ -0,0 +1,55 @@
+package org.example.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 최근 접수된 주문번호 캐시 (시간 창 + 최대 건수 제한).
+ * 컨슈머는 저장 전에 조회하고 커밋 후에 기록하므로, 롤백되어 재전달된 배치는 중복으로 걸러지지 않는다.
+ * 같은 주문번호는 같은 종목 키 → 같은 파티션 → 같은 컨슈머 스레드로 오지만 스레드끼리 캐시를 공유하므로 동기화.
+ */
+@Component
+public class IdempotencyCache {
+
+    @Value("${offer.idempotency.window-minutes:10}")
+    private long windowMinutes;
+
+    @Value("${offer.idempotency.max-entries:1000000}")
+    private int maxEntries;
+
+    // 삽입 순서 = 기록 시각 순이므로 앞에서부터 만료
+    private final LinkedHashMap<String, Long> seen = new LinkedHashMap<>();
+
+    public synchronized boolean contains(String orderId) {
+        evict(System.nanoTime());
+        return seen.containsKey(orderId);
+    }
+
+    public synchronized void record(Collection<String> orderIds) {
+        long now = System.nanoTime();
+        for (String orderId : orderIds) {
+            seen.putIfAbsent(orderId, now);
+        }
+        evict(now);
+    }
+
+    public synchronized int size() {
+        return seen.size();
+    }
+
+    private void evict(long now) {
+        long expiredBefore = now - TimeUnit.MINUTES.toNanos(windowMinutes);
+        Iterator<Map.Entry<String, Long>> it = seen.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Long> e = it.next();
+            if (seen.size() <= maxEntries && e.getValue() - expiredBefore >= 0) break;
+            it.remove();
+        }
+    }
+}
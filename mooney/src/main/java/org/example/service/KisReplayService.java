@@ -0,0 +1,105 @@
+package org.example.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.StageLog;
+import org.example.marketdata.FrameJournalReader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 기록된 KIS 원본 프레임 재생.
+ * 실시간 수신과 같은 KisSession.onMessage 파이프라인(복호화 → 파싱 → 매칭/화면/봉)에 프레임을 순서대로 넣는다.
+ * speed: 1 = 원래 속도, N = N 배속, 0 이하 = 대기 없이 최대 속도.
+ * kis.replay.dir 을 지정하면 기동 직후 재생한다 (보통 kis.live.enabled=false 와 함께).
+ */
+@Service
+@RequiredArgsConstructor
+public class KisReplayService {
+
+    private static final StageLog REPLAY_LOG = new StageLog("feed.replay", 1);
+
+    private final StockWebSocketClient stockWebSocketClient;
+
+    @Value("${kis.replay.dir:}")
+    private String replayDir;
+
+    @Value("${kis.replay.speed:1}")
+    private double replaySpeed;
+
+    public record Result(long frames, long elapsedMillis, long recordedMillis) {}
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void replayOnStartup() {
+        if (replayDir.isBlank()) return;
+        Thread t = new Thread(() -> {
+            try {
+                replay(Path.of(replayDir), replaySpeed);
+            } catch (Exception e) {
+                REPLAY_LOG.log().error("⚠️ 재생 실패: {}", replayDir, e);
+            }
+        }, "kis-replay");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    public Result replay(Path dir, double speed) throws Exception {
+        KisSession session = stockWebSocketClient.replaySession();
+        Result result = replay(dir, speed, session::onMessage, ReplayClock.SYSTEM);
+        REPLAY_LOG.log().info("▶️ 재생 완료: 프레임 {}건 / 기록 {}ms → 재생 {}ms",
+                result.frames(), result.recordedMillis(), result.elapsedMillis());
+        return result;
+    }
+
+    // 재생 시계. 테스트는 가짜 시계로 기다리지 않고 일정만 검증
+    interface ReplayClock {
+        ReplayClock SYSTEM = new ReplayClock() {
+            @Override
+            public long nanoTime() {
+                return System.nanoTime();
+            }
+
+            @Override
+            public void parkNanos(long nanos) {
+                LockSupport.parkNanos(nanos);
+            }
+        };
+
+        long nanoTime();
+
+        void parkNanos(long nanos);
+    }
+
+    interface FrameSink {
+        void onMessage(String message);
+    }
+
+    /**
+     * 기록된 수신 시각(epoch ms) 간격대로 프레임을 넘김.
+     * nanoTime 은 JVM 마다 기준점이 달라 여러 번의 실행(세그먼트)에 걸친 기록에서는 비교할 수 없으므로 쓰지 않는다.
+     * 시계가 되돌아간 기록은 앞 프레임과 같은 시점으로 본다.
+     */
+    static Result replay(Path dir, double speed, FrameSink sink, ReplayClock clock) throws Exception {
+        long[] recorded = {-1, 0};   // 첫 프레임 epoch ms, 첫 프레임 기준 경과 ms
+        long startNanos = clock.nanoTime();
+
+        long frames = FrameJournalReader.read(dir, (epochMillis, nanoTime, message) -> {
+            if (recorded[0] < 0) recorded[0] = epochMillis;
+            recorded[1] = Math.max(recorded[1], epochMillis - recorded[0]);
+            if (speed > 0) {
+                long due = startNanos + (long) (TimeUnit.MILLISECONDS.toNanos(recorded[1]) / speed);
+                long wait;
+                while ((wait = due - clock.nanoTime()) > 0) clock.parkNanos(wait);
+            }
+            sink.onMessage(message);
+            return true;
+        });
+
+        return new Result(frames, (clock.nanoTime() - startNanos) / 1_000_000, recorded[1]);
+    }
+}
@@ -0,0 +1,246 @@
+package org.example.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.Endpoint;
+import jakarta.websocket.EndpointConfig;
+import jakarta.websocket.Session;
+import org.example.StageLog;
+import org.example.marketdata.FrameJournalWriter;
+import org.example.marketdata.KisCipher;
+import org.example.marketdata.KisDecryptContext;
+import org.example.marketdata.TickFrameParser;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * KIS 실시간 웹소켓 연결 하나.
+ * 이 연결에 배정된 종목 목록을 들고 있다가 (재)연결될 때마다 전부 다시 구독한다.
+ * 수신 메시지는 연결마다 따로 둔 파서/복호화 컨텍스트로 처리한다 (세션 수신은 한 번에 한 스레드).
+ */
+class KisSession extends Endpoint {
+
+    // 프레임 단위 상세 로그 (기본 꺼짐, logging.level.mooney.feed.frame=DEBUG)
+    private static final StageLog FRAME_LOG = new StageLog("feed.frame", 1);
+    private static final StageLog SESSION_LOG = new StageLog("feed.session", 1);
+
+    private final int index;
+    private final StockWebSocketClient client;
+    private final ObjectMapper objectMapper;
+
+    /** trId:trKey 별 복호화 컨텍스트 (예: "H0STCNT0:005930"). 수신 스레드에서만 사용 */
+    private final Map<String, KisDecryptContext> cipherMap = new ConcurrentHashMap<>();
+
+    // 이 연결에 배정된 종목 (재연결 시 재구독 대상)
+    private final Set<String> stockCodes = ConcurrentHashMap.newKeySet();
+
+    private final TickFrameParser tickParser = new TickFrameParser();
+    private final TickFrameParser.TickSink tickSink;
+    // 원본 프레임 기록 (kis.recorder.enabled 일 때만, 재생 세션은 null)
+    private final FrameJournalWriter recorder;
+
+    private volatile Session session;
+
+    // 연속 재연결 실패 횟수 (재연결 스레드에서만 사용)
+    int reconnectAttempts;
+
+    KisSession(int index, StockWebSocketClient client, ObjectMapper objectMapper,
+               TickFrameParser.TickSink tickSink, FrameJournalWriter recorder) {
+        this.index = index;
+        this.client = client;
+        this.objectMapper = objectMapper;
+        this.tickSink = tickSink;
+        this.recorder = recorder;
+    }
+
+    int index() {
+        return index;
+    }
+
+    int load() {
+        return stockCodes.size();
+    }
+
+    boolean isOpen() {
+        Session s = session;
+        return s != null && s.isOpen();
+    }
+
+    @Override
+    public void onOpen(Session session, EndpointConfig config) {
+        this.session = session;
+        session.addMessageHandler(String.class, this::onMessage);
+        client.onSessionOpened(this);
+
+        // 새 세션에는 구독이 없으므로 배정된 종목 전부 다시 구독
+        for (String code : stockCodes) {
+            send(code, true);
+        }
+    }
+
+    @Override
+    public void onClose(Session session, CloseReason reason) {
+        this.session = null;
+        cipherMap.clear();
+        client.onSessionClosed(this, reason);
+    }
+
+    @Override
+    public void onError(Session session, Throwable throwable) {
+        SESSION_LOG.log().warn("⚠️ [세션 {}] WebSocket 오류", index, throwable);
+    }
+
+    void subscribe(String stockCode) {
+        if (stockCodes.add(stockCode)) send(stockCode, true);
+    }
+
+    void unsubscribe(String stockCode) {
+        if (stockCodes.remove(stockCode)) {
+            send(stockCode, false);
+            cipherMap.remove(TickFrameParser.TR_ID + ":" + stockCode);
+        }
+    }
+
+    void close() {
+        try {
+            Session s = session;
+            if (s != null && s.isOpen()) s.close();
+        } catch (Exception e) {
+            SESSION_LOG.log().debug("[세션 {}] 닫기 실패", index, e);
+        }
+    }
+
+    // 구독/해지 요청. 연결이 끊겨 있으면 보내지 않고, 재연결 시 onOpen 에서 다시 보냄
+    private synchronized void send(String stockCode, boolean subscribe) {
+        Session s = session;
+        if (s == null || !s.isOpen()) return;
+        try {
+            String subscribeMsg = """
+            {
+              "header": {
+                "approval_key": "%s",
+                "custtype": "P",
+                "tr_type": "%s",
+                "content-type": "utf-8"
+              },
+              "body": {
+                "input": {
+                  "tr_id": "%s",
+                  "tr_key": "%s"
+                }
+              }
+            }
+            """.formatted(client.approvalKey(), subscribe ? "1" : "2", TickFrameParser.TR_ID, stockCode);
+
+            s.getBasicRemote().sendText(subscribeMsg);
+            SESSION_LOG.log().atDebug().setMessage(subscribe ? "📩 구독 요청" : "📩 해지 요청")
+                    .addKeyValue("session", index).addKeyValue("trId", TickFrameParser.TR_ID).addKeyValue("code", stockCode).log();
+        } catch (Exception e) {
+            SESSION_LOG.log().warn("⚠️ [세션 {}] {} 요청 실패: {}", index, subscribe ? "구독" : "해지", stockCode, e);
+        }
+    }
+
+    // 수신 프레임 처리 (재생 시에는 KisReplayService 가 기록된 프레임으로 직접 호출)
+    void onMessage(String message) {
+        long startedAt = System.nanoTime();
+        if (recorder != null) {
+            try {
+                recorder.append(System.currentTimeMillis(), System.nanoTime(), message);
+            } catch (Exception e) {
+                FRAME_LOG.log().warn("⚠️ 원본 프레임 기록 실패", e);
+            }
+        }
+
+        boolean dropped = !dispatch(message);
+        client.recordFrame(startedAt, dropped);
+    }
+
+    // 프레임 해석/전달. 버린 프레임이면 false
+    private boolean dispatch(String message) {
+        // 1) 메시지가 JSON인지 먼저 판별
+        if (!looksLikeJson(message)) {
+            // 복호화된 파이프 텍스트가 여기로 들어왔다면, 절대 readTree() 호출 금지
+            return handlePipeFrame(message);
+        }
+
+        try {
+            JsonNode root = objectMapper.readTree(message);
+            JsonNode header = root.path("header");
+            String trId = header.path("tr_id").asText("");
+
+            // keep-alive
+            if ("PINGPONG".equalsIgnoreCase(trId)) return true;
+
+            JsonNode body = root.path("body");
+
+            // (A) 구독 성공: iv/key 로 복호화 컨텍스트를 미리 만들어 둠
+            if (body.has("output") && body.path("output").has("iv") && body.path("output").has("key")) {
+                String ivHex  = body.path("output").path("iv").asText();
+                String keyHex = body.path("output").path("key").asText();
+                String trKey  = header.path("tr_key").asText(""); // 없는 경우도 있으니 대비
+                cipherMap.put(trId + ":" + trKey,
+                        new KisDecryptContext(KisCipher.hexToBytes(keyHex), KisCipher.hexToBytes(ivHex)));
+                SESSION_LOG.log().atDebug().setMessage("🔐 구독 성공 (iv,key 저장)")
+                        .addKeyValue("trId", trId).addKeyValue("trKey", trKey).log();
+                return true;
+            }
+
+            // (B) 실데이터: content(Base64) → 복호화 → 파싱
+            if (body.has("content")) {
+                String contentB64 = body.path("content").asText();
+                String trKey = header.path("tr_key").asText("");
+                KisDecryptContext decryptor = cipherMap.get(trId + ":" + trKey);
+                if (decryptor == null) {
+                    FRAME_LOG.log().atWarn().setMessage("iv/key 없음").addKeyValue("trId", trId).addKeyValue("trKey", trKey).log();
+                    return false;
+                }
+                CharSequence decrypted = decryptor.decrypt(contentB64);
+                handleDecryptedFrame(trId, trKey, decrypted); // 여기서 파싱
+                return true;
+            }
+
+            // (C) 그 외
+            if (FRAME_LOG.sampled()) FRAME_LOG.log().debug("수신(기타): {}", message);
+            return true;
+
+        } catch (Exception e) {
+            // 여기서 발생하던 JsonParseException은 더이상 나오면 안 됨
+            FRAME_LOG.log().warn("프레임 처리 실패", e);
+            return false;
+        }
+    }
+
+    /** message가 JSON처럼 보이는지 매우 보수적으로 판단 */
+    private boolean looksLikeJson(String s) {
+        if (s == null) return false;
+        String t = s.trim();
+        return (t.startsWith("{") && t.endsWith("}")) || (t.startsWith("[") && t.endsWith("]"));
+    }
+
+    /** 파이프 전문에서 체결가만 추출해 전달 (KIS 포맷: enc|TR_ID|count|rec...) */
+    private boolean handlePipeFrame(String frame) {
+        if (frame == null || frame.isBlank()) return false;
+
+        // 예: 0|H0STCNT0|004|005930^123929^73100^...^005930^...
+        // 체결 채널이 아니면 0 (필요하면 다른 채널 분기 추가)
+        if (tickParser.parseFrame(frame, tickSink) < 0) {
+            if (FRAME_LOG.sampled()) FRAME_LOG.log().debug("예상보다 짧은 파이프 프레임: {}", frame);
+            return false;
+        }
+        return true;
+    }
+
+    /** 정상 경로: content 복호화 후 채널별 파싱 */
+    private void handleDecryptedFrame(String trId, String trKey, CharSequence decrypted) {
+        if (TickFrameParser.TR_ID.equals(trId)) {
+            // 체결: 복호화된 본문은 헤더 없이 레코드(^ 구분)만 옴
+            tickParser.parseRecords(decrypted, 0, decrypted.length(), 0, tickSink);
+        } else if (FRAME_LOG.sampled()) {
+            FRAME_LOG.log().atDebug().setMessage("비체결 채널").addKeyValue("trId", trId).addKeyValue("trKey", trKey)
+                    .addKeyValue("body", decrypted).log();
+        }
+    }
+}
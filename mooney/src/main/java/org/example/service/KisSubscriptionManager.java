@@ -0,0 +1,223 @@
+package org.example.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.StageLog;
+import org.example.matching.OrderBookListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * KIS 실시간 체결 구독 관리.
+ * 호가창 이벤트로 구독을 결정한다: 첫 미체결 주문이 걸리면 즉시 구독, 마지막 주문이 체결/취소되면 일정 시간 뒤 해지.
+ * 구독 한도를 넘으면 우선순위(미체결 주문 > 고정 종목 > 해지 대기)가 낮고 최근 체결이 가장 오래된 종목부터 밀어낸다.
+ *
+ * 상태 변경은 모두 전용 스레드 하나에서 처리한다 (호가창 이벤트는 매칭 샤드 스레드에서 오므로 블로킹 금지).
+ */
+@Service
+public class KisSubscriptionManager implements OrderBookListener {
+
+    private static final StageLog SESSION_LOG = new StageLog("feed.session", 1);
+
+    /** 실제 구독/해지 요청을 KIS 로 보내는 쪽 (StockWebSocketClient) */
+    @FunctionalInterface
+    public interface SubscriptionSender {
+        boolean send(String stockCode, boolean subscribe);
+    }
+
+    // 숫자가 클수록 우선
+    private enum Priority { IDLE, PINNED, ACTIVE }
+
+    private static final class Subscription {
+        final String stockCode;
+        Priority priority;
+        boolean subscribed;
+        ScheduledFuture<?> pendingUnsubscribe;
+        // 틱 수신 스레드가 갱신 (LRU 판단용)
+        volatile long lastTickNanos = System.nanoTime();
+
+        Subscription(String stockCode, Priority priority) {
+            this.stockCode = stockCode;
+            this.priority = priority;
+        }
+    }
+
+    @Value("${kis.unsubscribe-delay-ms:30000}")
+    private long unsubscribeDelayMs;
+
+    // 주문이 없어도 항상 구독해 두는 종목 (시세 확인용)
+    @Value("${kis.pinned-symbols:005930}")
+    private String[] pinnedSymbols;
+
+    // 조회는 아무 스레드에서나, 변경은 관리 스레드에서만
+    private final Map<String, Subscription> symbols = new ConcurrentHashMap<>();
+    // 한도 때문에 구독하지 못하고 기다리는 종목
+    private final Deque<String> waiting = new ArrayDeque<>();
+    private int subscribedCount;
+    // 전체 세션에 걸친 구독 한도 (bind 시 정해짐)
+    private int maxSubscriptions;
+
+    private volatile SubscriptionSender sender;
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "kis-subscription");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.execute(() -> {
+            for (String code : pinnedSymbols) {
+                if (code.isBlank()) continue;
+                symbols.computeIfAbsent(code.trim(), c -> new Subscription(c, Priority.PINNED));
+            }
+        });
+    }
+
+    // 구독 한도는 연결 쪽(세션 수 × 세션당 한도)이 정함. 바인딩 시점까지 쌓인 종목을 우선순위 순으로 구독
+    public void bind(SubscriptionSender sender, int capacity) {
+        executor.execute(() -> {
+            this.sender = sender;
+            this.maxSubscriptions = capacity;
+            List<Subscription> all = new ArrayList<>(symbols.values());
+            all.sort(Comparator.comparing((Subscription s) -> s.priority).reversed());
+            for (Subscription s : all) {
+                if (s.priority != Priority.IDLE) ensureSubscribed(s);
+            }
+        });
+    }
+
+    /* ===== 호가창 이벤트 (매칭 샤드 스레드) ===== */
+
+    @Override
+    public void onSymbolActive(String stockCode) {
+        executor.execute(() -> {
+            Subscription s = symbols.computeIfAbsent(stockCode, c -> new Subscription(c, Priority.ACTIVE));
+            s.priority = Priority.ACTIVE;
+            cancelPendingUnsubscribe(s);
+            ensureSubscribed(s);
+        });
+    }
+
+    @Override
+    public void onSymbolIdle(String stockCode) {
+        executor.execute(() -> {
+            Subscription s = symbols.get(stockCode);
+            if (s == null || s.priority != Priority.ACTIVE) return;
+
+            if (isPinned(stockCode)) {
+                s.priority = Priority.PINNED;
+                return;
+            }
+            // 곧바로 새 주문이 들어오는 경우가 많으므로 바로 해지하지 않고 잠시 기다림
+            s.priority = Priority.IDLE;
+            cancelPendingUnsubscribe(s);
+            s.pendingUnsubscribe = executor.schedule(() -> {
+                s.pendingUnsubscribe = null;
+                if (s.priority == Priority.IDLE) release(s);
+            }, unsubscribeDelayMs, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    // 체결 수신 시 호출 (잠금/할당 없음)
+    public void touch(String stockCode) {
+        Subscription s = symbols.get(stockCode);
+        if (s != null) s.lastTickNanos = System.nanoTime();
+    }
+
+    /* ===== 관리 스레드 내부 ===== */
+
+    private void ensureSubscribed(Subscription s) {
+        if (s.subscribed) return;
+        SubscriptionSender current = sender;
+        if (current == null) return; // bind 시 다시 시도
+
+        if (subscribedCount >= maxSubscriptions && !evictFor(s)) {
+            if (!waiting.contains(s.stockCode)) waiting.addLast(s.stockCode);
+            SESSION_LOG.log().warn("⚠️ 구독 한도({}) 초과, 대기: {}", maxSubscriptions, s.stockCode);
+            return;
+        }
+
+        if (current.send(s.stockCode, true)) {
+            s.subscribed = true;
+            subscribedCount++;
+        }
+    }
+
+    // 새 종목보다 우선순위가 낮은 구독 중 가장 오래 체결이 없던 것을 해지
+    private boolean evictFor(Subscription incoming) {
+        Subscription victim = null;
+        for (Subscription s : symbols.values()) {
+            if (!s.subscribed || s.priority.compareTo(incoming.priority) >= 0) continue;
+            if (victim == null
+                    || s.priority.compareTo(victim.priority) < 0
+                    || (s.priority == victim.priority && s.lastTickNanos < victim.lastTickNanos)) {
+                victim = s;
+            }
+        }
+        if (victim == null) return false;
+
+        Priority victimPriority = victim.priority;
+        unsubscribe(victim);
+        if (victimPriority == Priority.IDLE) {
+            cancelPendingUnsubscribe(victim);
+            symbols.remove(victim.stockCode);
+        } else {
+            waiting.addLast(victim.stockCode);
+        }
+        return true;
+    }
+
+    private void release(Subscription s) {
+        unsubscribe(s);
+        symbols.remove(s.stockCode);
+        drainWaiting();
+    }
+
+    private void unsubscribe(Subscription s) {
+        if (!s.subscribed) return;
+        SubscriptionSender current = sender;
+        if (current != null) current.send(s.stockCode, false);
+        s.subscribed = false;
+        subscribedCount--;
+    }
+
+    private void drainWaiting() {
+        while (subscribedCount < maxSubscriptions && !waiting.isEmpty()) {
+            Subscription s = symbols.get(waiting.pollFirst());
+            if (s != null && s.priority != Priority.IDLE) ensureSubscribed(s);
+        }
+    }
+
+    private void cancelPendingUnsubscribe(Subscription s) {
+        if (s.pendingUnsubscribe != null) {
+            s.pendingUnsubscribe.cancel(false);
+            s.pendingUnsubscribe = null;
+        }
+    }
+
+    private boolean isPinned(String stockCode) {
+        for (String code : pinnedSymbols) {
+            if (code.trim().equals(stockCode)) return true;
+        }
+        return false;
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+}
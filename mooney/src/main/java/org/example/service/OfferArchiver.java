@@ -0,0 +1,86 @@
+package org.example.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.StageLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * 종료된 주문(FILLED/CANCELED)과 그 체결 행을 offer_archive / trade_archive 로 옮긴다.
+ * offer 테이블에는 사실상 미체결 주문만 남으므로 PENDING 조회 비용이 누적 이력과 무관해진다.
+ * 종료 직후의 주문은 저널에 남은 체결이 아직 들어올 수 있어 min-age 가 지난 것만 옮긴다.
+ */
+@Service
+@RequiredArgsConstructor
+public class OfferArchiver {
+
+    private static final StageLog ARCHIVE_LOG = new StageLog("persist.archive", 1);
+
+    // 이번 회차 상한: 종료된 주문 중 batch-size 번째 offer_id (idx_offer_status_id 범위 스캔)
+    private static final String UPPER_BOUND_SQL = """
+            SELECT MAX(offer_id) FROM (
+                SELECT offer_id FROM offer
+                WHERE offer_status IN (1, 2) AND offer_closed_at < ?
+                ORDER BY offer_id LIMIT ?
+            ) t""";
+    private static final String TARGET = "offer_status IN (1, 2) AND offer_closed_at < ? AND offer_id <= ?";
+
+    private static final String COPY_OFFERS_SQL = """
+            INSERT INTO offer_archive (offer_id, offer_price, offer_cnt, offer_filled_cnt, offer_side, offer_status,
+                                       account_id, stock_id, offer_closed_at, order_id)
+            SELECT offer_id, offer_price, offer_cnt, offer_filled_cnt, offer_side, offer_status,
+                   account_id, stock_id, offer_closed_at, order_id
+            FROM offer WHERE\s""" + TARGET;
+    private static final String COPY_TRADES_SQL = """
+            INSERT INTO trade_archive (trade_id, offer_id, trade_price, trade_cnt)
+            SELECT trade_id, offer_id, trade_price, trade_cnt FROM trade
+            WHERE offer_id IN (SELECT offer_id FROM offer WHERE\s""" + TARGET + ")";
+    private static final String DELETE_TRADES_SQL =
+            "DELETE FROM trade WHERE offer_id IN (SELECT offer_id FROM offer WHERE " + TARGET + ")";
+    private static final String DELETE_OFFERS_SQL = "DELETE FROM offer WHERE " + TARGET;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${offer.archive.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${offer.archive.min-age-minutes:10}")
+    private long minAgeMinutes;
+
+    @Scheduled(fixedDelayString = "${offer.archive.interval-ms:60000}")
+    public void archive() {
+        try {
+            Timestamp closedBefore = Timestamp.valueOf(LocalDateTime.now().minusMinutes(minAgeMinutes));
+            int total = 0;
+            int moved;
+            // 한 번에 batch-size 건씩, 옮길 게 없을 때까지
+            do {
+                moved = archiveBatch(closedBefore);
+                total += moved;
+            } while (moved >= batchSize);
+            if (total > 0) ARCHIVE_LOG.log().info("🗄️ 종료 주문 보관 이동: {}건", total);
+        } catch (Exception e) {
+            ARCHIVE_LOG.log().warn("⚠️ 종료 주문 보관 이동 실패", e);
+        }
+    }
+
+    private int archiveBatch(Timestamp closedBefore) {
+        Integer moved = transactionTemplate.execute(status -> {
+            Long upTo = jdbcTemplate.queryForObject(UPPER_BOUND_SQL, Long.class, closedBefore, batchSize);
+            if (upTo == null) return 0;
+            Object[] args = {closedBefore, upTo};
+            jdbcTemplate.update(COPY_OFFERS_SQL, args);
+            jdbcTemplate.update(COPY_TRADES_SQL, args);
+            jdbcTemplate.update(DELETE_TRADES_SQL, args);
+            return jdbcTemplate.update(DELETE_OFFERS_SQL, args);
+        });
+        return moved == null ? 0 : moved;
+    }
+}
@@ -1,47 +1,185 @@
 package org.example.service;
 
 import lombok.RequiredArgsConstructor;
+import org.example.KafkaConfig;
+import org.example.StageLog;
 import org.example.dto.OfferDto;
 import org.example.entity.Account;
 import org.example.entity.Offer;
-import org.example.entity.Stock;
 import org.example.entity.User;
+import org.example.matching.MatchingEngine;
 import org.example.repository.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class OfferKafkaConsumer {
 
+    private static final String INSERT_TRADE_SQL = "INSERT INTO trade (offer_id) VALUES (?)";
+    // 재전달된 배치가 같은 거절을 다시 넣어도 실패하지 않게 IGNORE
+    private static final String INSERT_REJECTION_SQL =
+            "INSERT IGNORE INTO order_rejection (order_id, reason, rejected_at) VALUES (?, ?, CURRENT_TIMESTAMP(6))";
+    // 캐시 창을 벗어났거나 재기동 뒤 다시 온 주문번호: 저장된 주문/보관 주문/거절 기록에서 한 번에 찾음 (%1$s = 배치 주문번호 자리)
+    private static final String SELECT_SEEN_SQL = """
+            SELECT order_id FROM offer WHERE order_id IN (%1$s)
+            UNION ALL SELECT order_id FROM offer_archive WHERE order_id IN (%1$s)
+            UNION ALL SELECT order_id FROM order_rejection WHERE order_id IN (%1$s)""";
+    private static final StageLog ORDER_LOG = new StageLog("order.consume", 1);
+
     private final StockRepository stockRepository;
     private final AccountRepository accountRepository;
     private final UserRepository userRepository;
     private final OfferRepository offerRepository;
-    private final TradeRepository tradeRepository;
-
-    @Transactional
-    @KafkaListener(topics = "order-request", groupId = "mooney-offer-group")
-    public void saveOffer(OfferDto dto) {
-        System.out.println("📥 메세지 구독 : " + dto.getStockCode() + " " +
-                dto.getOfferPrice() + " " +
-                dto.getOfferCnt() + " " +
-                dto.getOfferSide());
-
-        // Stock, Account 데이터 조회
-        Stock stock = stockRepository.findByStockCode(dto.getStockCode());
+    private final MatchingEngine matchingEngine;
+    private final StockCache stockCache;
+    private final OfferValidator offerValidator;
+    private final AccountLedger accountLedger;
+    private final IdempotencyCache idempotencyCache;
+    private final JdbcTemplate jdbcTemplate;
+
+    // 인스턴스가 하나뿐이면 false 로 꺼도 됨 (메모리 원장만으로 예약)
+    @Value("${ledger.shared-check.enabled:true}")
+    private boolean sharedCheck;
+
+    /**
+     * poll 한 번에 받은 주문을 한 트랜잭션으로 저장.
+     * 종목은 캐시에서 찾고 계좌는 배치당 한 번만 조회하며, 주문/체결 행은 JDBC 배치로 넣는다.
+     * 오프셋은 리스너가 정상 반환한 뒤 배치 단위로 커밋된다 (실패 시 배치 전체 재전달).
+     * 클라이언트 재전송으로 같은 주문번호가 다시 오면 버린다 (조회는 먼저 온 주문으로).
+     * 최근 접수 캐시에 없는 주문번호는 배치당 쿼리 한 번으로 DB 에서 확인하므로 캐시 창이 지나거나 재기동해도 걸러진다.
+     * 매수 예약은 메모리 원장과 함께 DB 기준 주문 가능 금액(다른 인스턴스가 접수한 주문 포함)으로도 확인한다.
+     * 그래서 계좌 행 잠금 뒤 다른 트랜잭션의 커밋이 보이도록 READ COMMITTED 로 돈다.
+     * 형식이 틀렸거나(알 수 없는 종목, 방향/주문가/수량 오류) 금액이 부족해 거절한 주문은 order_rejection 에 남겨 주문번호 조회가 REJECTED 를 돌려준다.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    @KafkaListener(topics = KafkaConfig.ORDER_REQUEST_TOPIC, groupId = "mooney-offer-group", batch = "true",
+            concurrency = "${offer.consumer.concurrency:${kafka.order-request.partitions:6}}",
+            properties = {
+                    "max.poll.records=${offer.consumer.max-poll-records:500}",
+                    // 리밸런스 때 계속 가지는 파티션은 회수/재배정하지 않음 → 그 종목 호가창을 버렸다 다시 적재할 일이 없음
+                    "partition.assignment.strategy=org.apache.kafka.clients.consumer.CooperativeStickyAssignor"
+            })
+    public void saveOffers(List<OfferDto> dtos) {
+        ORDER_LOG.log().debug("📥 메세지 구독 : {}건", dtos.size());
+
+        // Account 데이터 조회 (배치당 한 번)
         Optional<User> user = userRepository.findById(1L);
         Account account = accountRepository.findByUser(user);
 
-        // 1. 주문 테이블에 저장
-        Offer offer = dto.toEntity(dto, stock, account);
-        offerRepository.save(offer);
+        // 1. 주문 테이블에 저장 (시퀀스 ID 라 persist 시점에 ID 확정, insert 는 flush 때 배치로)
+        List<Offer> offers = new ArrayList<>(dtos.size());
+        List<String> stockCodes = new ArrayList<>(dtos.size());
+        List<Long> reservations = new ArrayList<>();
+        long reserved = 0;
+        long sharedAvailable = Long.MIN_VALUE; // 첫 매수에서 읽음 (매도만 있는 배치는 잠그지 않음)
+        Set<String> orderIds = new HashSet<>();
+        List<Object[]> rejections = new ArrayList<>();
+        Set<String> persisted = persistedOrderIds(dtos);
+        for (OfferDto dto : dtos) {
+            String orderId = dto.getOrderId();
+            if (orderId != null && (persisted.contains(orderId) || !orderIds.add(orderId))) {
+                ORDER_LOG.log().atInfo().setMessage("중복 주문 무시").addKeyValue("orderId", orderId).log();
+                continue;
+            }
+            // 접수 API 를 거치지 않고 토픽에 들어온 주문도 있으므로 예약 전에 다시 검증 (종목은 캐시에서)
+            OfferValidator.Reason invalid = offerValidator.validate(dto);
+            if (invalid != null) {
+                ORDER_LOG.log().atWarn().setMessage("잘못된 주문, 주문 거절")
+                        .addKeyValue("orderId", dto.getOrderId()).addKeyValue("code", dto.getStockCode())
+                        .addKeyValue("reason", invalid).log();
+                reject(rejections, dto, invalid.name());
+                continue;
+            }
+            // 엔티티는 select 없는 참조 프록시로
+            long stockId = stockCache.idOf(dto.getStockCode());
+            // 매수는 접수 시점에 주문 금액을 예약 (주문 가능 금액 부족 시 거절)
+            if ("BUY".equals(dto.getOfferSide())) {
+                long amount = OfferValidator.amountOf(dto);
+                if (sharedCheck && sharedAvailable == Long.MIN_VALUE) {
+                    sharedAvailable = accountLedger.lockSharedAvailable(account.getAccountId());
+                }
+                if ((sharedCheck && sharedAvailable - reserved < amount)
+                        || !accountLedger.reserve(account.getAccountId(), amount)) {
+                    ORDER_LOG.log().atInfo().setMessage("주문 가능 금액 부족, 주문 거절")
+                            .addKeyValue("orderId", dto.getOrderId()).addKeyValue("code", dto.getStockCode()).log();
+                    reject(rejections, dto, "INSUFFICIENT_FUNDS");
+                    continue;
+                }
+                reservations.add(amount);
+                reserved += amount;
+            }
+            offers.add(dto.toEntity(dto, stockRepository.getReferenceById(stockId), account));
+            stockCodes.add(dto.getStockCode());
+        }
+        if (!rejections.isEmpty()) jdbcTemplate.batchUpdate(INSERT_REJECTION_SQL, rejections);
+        // 거절만 있는 배치도 커밋되면 최근 접수로 기록
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                idempotencyCache.record(orderIds);
+            }
+        });
+        if (offers.isEmpty()) return;
+
+        // 커밋 실패 시 예약 되돌림 (배치는 통째로 재전달됨)
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) return;
+                for (long amount : reservations) accountLedger.release(account.getAccountId(), amount);
+            }
+        });
+        offerRepository.saveAllAndFlush(offers);
 
         // 2. 체결 테이블에 저장 (PENDING 상태)
-        tradeRepository.save(dto.addTradeEntity(offer));
+        jdbcTemplate.batchUpdate(INSERT_TRADE_SQL, offers, offers.size(),
+                (ps, offer) -> ps.setLong(1, offer.getOfferId()));
+
+        // 3. 커밋이 끝난 뒤 매칭 엔진에 전달 (커밋 전 체결 시도로 주문을 못 찾는 일 방지)
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                for (int i = 0; i < offers.size(); i++) {
+                    matchingEngine.onOfferAccepted(stockCodes.get(i), offers.get(i));
+                }
+            }
+        });
+    }
+
+    // 이미 접수/거절된 주문번호: 캐시에 있으면 바로, 없는 것만 모아 DB 에서
+    private Set<String> persistedOrderIds(List<OfferDto> dtos) {
+        Set<String> persisted = new HashSet<>();
+        List<String> unknown = new ArrayList<>();
+        for (OfferDto dto : dtos) {
+            String orderId = dto.getOrderId();
+            if (orderId == null) continue;
+            if (idempotencyCache.contains(orderId)) persisted.add(orderId);
+            else unknown.add(orderId);
+        }
+        if (unknown.isEmpty()) return persisted;
+
+        String placeholders = String.join(",", Collections.nCopies(unknown.size(), "?"));
+        List<Object> args = new ArrayList<>(unknown.size() * 3);
+        for (int i = 0; i < 3; i++) args.addAll(unknown);
+        persisted.addAll(jdbcTemplate.queryForList(SELECT_SEEN_SQL.formatted(placeholders), String.class, args.toArray()));
+        return persisted;
+    }
+
+    private static void reject(List<Object[]> rejections, OfferDto dto, String reason) {
+        if (dto.getOrderId() != null) rejections.add(new Object[]{dto.getOrderId(), reason});
     }
 }
@@ -1,58 +1,66 @@
 package org.example.service;
 
 import lombok.RequiredArgsConstructor;
-import org.example.entity.Account;
+import org.example.dto.OrderStatusDto;
 import org.example.entity.Offer;
-import org.example.entity.Trade;
+import org.example.entity.OfferStatus;
+import org.example.matching.MatchingEngine;
 import org.example.repository.OfferRepository;
-import org.example.repository.TradeRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 public class OfferService {
+    private static final String SELECT_ARCHIVED_SQL =
+            "SELECT offer_id, offer_status, offer_cnt, offer_filled_cnt FROM offer_archive WHERE order_id = ?";
+    private static final String SELECT_REJECTED_SQL =
+            "SELECT reason FROM order_rejection WHERE order_id = ?";
+
     private final OfferRepository offerRepository;
-    private final TradeRepository tradeRepository;
+    private final MatchingEngine matchingEngine;
+    private final AccountLedger accountLedger;
+    private final JdbcTemplate jdbcTemplate;
 
-    // PENDING 중인 주문의 stockCode 조회
-    @Transactional(readOnly = true)
-    public List<String> getPendingStockCodes() {
-        return offerRepository.findDistinctStockCodesByOfferStatus("PENDING");
+    // 접수 주문번호: 멱등 키가 있으면 키에서 결정적으로 만들어 재전송해도 같은 번호가 나오게 함
+    public String orderIdOf(String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) return UUID.randomUUID().toString();
+        return UUID.nameUUIDFromBytes(idempotencyKey.getBytes(StandardCharsets.UTF_8)).toString();
     }
 
-    // 호가랑 체결가가 매칭하는지 확인
-    @Transactional
-    public void matchOrders(String stockCode, double currentPrice) {
-        List<Offer> pendingOffers = offerRepository.findByStock_StockCodeAndOfferStatus(stockCode, "PENDING");
-
-        for (Offer offer : pendingOffers) {
-            boolean fill = false;
+    // 주문번호 조회: 주문 → 보관 이동된 주문 → 거절 기록 순 (컨슈머가 아직 처리하지 않았으면 비어 있음)
+    // 같은 주문번호가 거절 후 재전송으로 접수됐으면 접수된 주문이 우선
+    public Optional<OrderStatusDto> findByOrderId(String orderId) {
+        Optional<OrderStatusDto> status = offerRepository.findStatusByOrderId(orderId);
+        if (status.isPresent()) return status;
 
-            if (offer.getOfferSide().equals("BUY") && offer.getOfferPrice() == currentPrice) {
-                fill = true;
-            } else if (offer.getOfferSide().equals("SELL") && offer.getOfferPrice() == currentPrice) {
-                fill = true;
-            }
+        List<OrderStatusDto> archived = jdbcTemplate.query(SELECT_ARCHIVED_SQL, (rs, i) -> new OrderStatusDto(orderId,
+                rs.getLong("offer_id"), OfferStatus.of(rs.getInt("offer_status")),
+                rs.getInt("offer_cnt"), rs.getInt("offer_filled_cnt")), orderId);
+        if (!archived.isEmpty()) return Optional.of(archived.get(0));
 
-            if (fill) {
-                offer.isFilled();
-                Account account = offer.getAccount();
-                Trade trade = Trade.builder()
-                        .offer(offer)
-                        .build();
+        List<String> reasons = jdbcTemplate.queryForList(SELECT_REJECTED_SQL, String.class, orderId);
+        return reasons.stream().findFirst().map(reason -> OrderStatusDto.rejected(orderId, reason));
+    }
 
-                tradeRepository.save(trade);
+    // 주문 취소: 호가창에서 먼저 빼고, 잔량이 있었을 때만 DB 상태 변경 (이미 전부 체결된 주문은 취소 불가)
+    // cancel 은 취소 이벤트가 저널에 fsync 된 뒤 완료되므로 DB 변경 도중 죽어도 재기동 시 저널에서 다시 닫힘
+    public boolean cancelOffer(Long offerId) {
+        Offer offer = offerRepository.findWithStock(offerId).orElse(null);
+        if (offer == null || offer.getOfferStatus() != OfferStatus.PENDING) return false;
 
-                if (offer.getOfferSide().equals("BUY")) {
-                    account.updateCashBalance(account.getCashBalance() - offer.getOfferPrice() * offer.getOfferCnt());
-                } else if (offer.getOfferSide().equals("SELL")) {
-                    account.updateCashBalance(account.getCashBalance() + offer.getOfferPrice() * offer.getOfferCnt() );
-                }
+        int remaining = matchingEngine.cancel(offer.getStock().getStockCode(), offer).join();
+        if (remaining == 0) return false;
 
-            }
+        offerRepository.closeOffer(offerId, OfferStatus.PENDING, OfferStatus.CANCELED);
+        if ("BUY".equals(offer.getOfferSide())) {
+            accountLedger.release(offer.getAccount().getAccountId(), offer.getOfferPrice() * remaining);
         }
+        return true;
     }
-}
\ No newline at end of file
+}
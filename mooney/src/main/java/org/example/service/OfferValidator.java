@@ -0,0 +1,54 @@
+package org.example.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.dto.OfferDto;
+import org.springframework.stereotype.Component;
+
+/**
+ * 주문 형식 검증. 단건/대량 접수는 발행 전에, 컨슈머는 금액 예약 전에 같은 규칙으로 거절한다.
+ * 거절 사유 이름은 order_rejection.reason 에 그대로 남는다.
+ */
+@Component
+@RequiredArgsConstructor
+public class OfferValidator {
+
+    private final StockCache stockCache;
+
+    public enum Reason {
+        UNKNOWN_STOCK,
+        INVALID_SIDE,
+        INVALID_PRICE,
+        INVALID_QUANTITY,
+        AMOUNT_OVERFLOW;
+
+        // 접수 응답에 실을 설명
+        public String describe(OfferDto dto) {
+            return switch (this) {
+                case UNKNOWN_STOCK -> "알 수 없는 종목코드: " + dto.getStockCode();
+                case INVALID_SIDE -> "알 수 없는 주문 방향: " + dto.getOfferSide();
+                case INVALID_PRICE -> "주문가는 0보다 커야 함";
+                case INVALID_QUANTITY -> "주문량은 0보다 커야 함";
+                case AMOUNT_OVERFLOW -> "주문 금액이 너무 큼";
+            };
+        }
+    }
+
+    // 통과하면 null
+    public Reason validate(OfferDto dto) {
+        if (dto.getStockCode() == null || !stockCache.contains(dto.getStockCode())) return Reason.UNKNOWN_STOCK;
+        if (!"BUY".equals(dto.getOfferSide()) && !"SELL".equals(dto.getOfferSide())) return Reason.INVALID_SIDE;
+        if (dto.getOfferPrice() <= 0) return Reason.INVALID_PRICE;
+        if (dto.getOfferCnt() <= 0) return Reason.INVALID_QUANTITY;
+        try {
+            amountOf(dto);
+        } catch (ArithmeticException e) {
+            return Reason.AMOUNT_OVERFLOW;
+        }
+        return null;
+    }
+
+    // 주문 금액 (주문가 × 수량). long 을 넘으면 ArithmeticException
+    public static long amountOf(OfferDto dto) {
+        return Math.multiplyExact(dto.getOfferPrice(), (long) dto.getOfferCnt());
+    }
+}
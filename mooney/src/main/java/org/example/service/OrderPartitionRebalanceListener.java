@@ -0,0 +1,116 @@
+package org.example.service;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.utils.Utils;
+import org.example.KafkaConfig;
+import org.example.StageLog;
+import org.example.matching.MatchingEngine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * order-request 파티션 배정에 맞춰 매칭 엔진이 맡을 종목을 정한다.
+ * 종목코드가 키이므로 파티션을 가진 컨슈머(인스턴스)만 그 종목의 호가창을 들고 체결시킨다.
+ * 콜백은 컨슈머 스레드에서 poll 전에 불리므로, 적재가 끝난 뒤에야 해당 파티션의 새 주문이 들어온다.
+ * 리스너 하나를 인스턴스의 모든 컨슈머 스레드가 같이 쓰므로, 이미 가진 파티션은 다시 적재하지 않고
+ * 여러 스레드에 동시에 배정된 파티션은 한 번의 DB 조회로 모아 적재한다.
+ * 회수될 때는 그 종목들의 체결이 DB 에 반영될 때까지 기다린 뒤 돌려준다 (새 담당은 DB 잔량으로 다시 적재하므로).
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderPartitionRebalanceListener implements ConsumerAwareRebalanceListener {
+
+    private static final StageLog PARTITION_LOG = new StageLog("order.partition", 1);
+
+    private final MatchingEngine matchingEngine;
+
+    // 회수된 종목의 체결이 DB 에 들어갈 때까지 기다리는 최대 시간
+    @Value("${order.partition.release-timeout-ms:30000}")
+    private long releaseTimeoutMs;
+
+    // 이 인스턴스가 호가창을 들고 있는 파티션
+    private final Set<Integer> owned = ConcurrentHashMap.newKeySet();
+    // 배정됐지만 아직 적재하지 않은 파티션 (toLoad 로 동기화)
+    private final Set<Integer> toLoad = new HashSet<>();
+
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        Set<Integer> added = orderPartitions(partitions);
+        added.removeIf(p -> !owned.add(p));
+        if (added.isEmpty()) return;
+        int partitionCount = consumer.partitionsFor(KafkaConfig.ORDER_REQUEST_TOPIC).size();
+        PARTITION_LOG.log().info("🧩 order-request 파티션 배정: {} / {}", added, partitionCount);
+        synchronized (toLoad) {
+            toLoad.addAll(added);
+        }
+        load(partitionCount);
+    }
+
+    // 먼저 들어온 스레드가 그때까지 모인 파티션을 한꺼번에 적재. 뒤따라온 스레드는 그 적재가 끝날 때까지 기다렸다가
+    // 자기 파티션이 이미 적재됐으면 그냥 돌아감 (적재 전에 poll 하지 않도록)
+    private synchronized void load(int partitionCount) {
+        Set<Integer> batch;
+        synchronized (toLoad) {
+            if (toLoad.isEmpty()) return;
+            batch = new HashSet<>(toLoad);
+            toLoad.clear();
+        }
+        try {
+            matchingEngine.loadPending(code -> batch.contains(partitionFor(code, partitionCount)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            owned.removeAll(batch);
+            PARTITION_LOG.log().warn("🧩 호가창 적재 중단: {}", batch);
+        }
+    }
+
+    // 오프셋 커밋 전에 호가창을 내려놓고 체결 반영까지 기다림 → 이 콜백이 끝나야 새 담당이 파티션을 받음
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        release(consumer, partitions);
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        release(consumer, partitions);
+    }
+
+    private void release(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        Set<Integer> released = orderPartitions(partitions);
+        released.removeIf(p -> !owned.remove(p));
+        if (released.isEmpty()) return;
+        int partitionCount = consumer.partitionsFor(KafkaConfig.ORDER_REQUEST_TOPIC).size();
+        PARTITION_LOG.log().info("🧩 order-request 파티션 해제: {}", released);
+        try {
+            if (!matchingEngine.drop(code -> released.contains(partitionFor(code, partitionCount)), releaseTimeoutMs)) {
+                PARTITION_LOG.log().warn("⚠️ 회수 파티션 체결 반영이 {}ms 안에 끝나지 않음: {} (새 담당이 이전 잔량을 읽을 수 있음)",
+                        releaseTimeoutMs, released);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            PARTITION_LOG.log().warn("⚠️ 회수 파티션 체결 반영 대기 중단: {}", released);
+        }
+    }
+
+    private static Set<Integer> orderPartitions(Collection<TopicPartition> partitions) {
+        Set<Integer> result = new HashSet<>();
+        for (TopicPartition tp : partitions) {
+            if (KafkaConfig.ORDER_REQUEST_TOPIC.equals(tp.topic())) result.add(tp.partition());
+        }
+        return result;
+    }
+
+    // 프로듀서 기본 파티셔너와 같은 계산 (StringSerializer 키 → murmur2)
+    static int partitionFor(String stockCode, int partitionCount) {
+        return Utils.toPositive(Utils.murmur2(stockCode.getBytes(StandardCharsets.UTF_8))) % partitionCount;
+    }
+}
@@ -0,0 +1,133 @@
+package org.example.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.example.StageLog;
+import org.example.entity.Stock;
+import org.example.repository.StockRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * 종목 기준정보 캐시 (종목코드 → stockId / 종목명).
+ * 기동 시 한 번 적재하고, 기준정보가 바뀌면 새 인덱스를 통째로 만들어 교체한다 (copy-on-write).
+ * 조회는 잠금 없이 현재 인덱스를 읽기만 하므로 어느 스레드에서나 호출 가능.
+ */
+@Service
+@RequiredArgsConstructor
+public class StockCache {
+
+    private static final StageLog STOCK_LOG = new StageLog("stock", 1);
+
+    private final StockRepository stockRepository;
+
+    private volatile Index index = Index.build(List.of());
+
+    @PostConstruct
+    public void init() {
+        refresh();
+    }
+
+    // DB 에서 다시 읽어 인덱스 교체
+    public synchronized void refresh() {
+        index = Index.build(stockRepository.findAll());
+        STOCK_LOG.log().info("📇 종목 캐시 적재: {}건", index.size);
+    }
+
+    // 없으면 -1
+    public long idOf(String stockCode) {
+        return index.idOf(stockCode);
+    }
+
+    public boolean contains(String stockCode) {
+        return index.idOf(stockCode) >= 0;
+    }
+
+    public String nameOf(String stockCode) {
+        return index.nameOf(stockCode);
+    }
+
+    public int size() {
+        return index.size;
+    }
+
+    /**
+     * 불변 open addressing 테이블.
+     * 종목코드는 6자리 숫자/대문자라서 글자당 6비트로 long 하나에 담아 키로 쓴다 (문자열 비교 없음).
+     */
+    private static final class Index {
+        private static final int CODE_LENGTH = 6;
+
+        private final long[] keys;   // 0 = 빈 칸
+        private final long[] ids;
+        private final String[] names;
+        private final int mask;
+        private final int size;
+
+        private Index(int capacity, int size) {
+            this.keys = new long[capacity];
+            this.ids = new long[capacity];
+            this.names = new String[capacity];
+            this.mask = capacity - 1;
+            this.size = size;
+        }
+
+        static Index build(List<Stock> stocks) {
+            int capacity = Integer.highestOneBit(Math.max(16, stocks.size() * 2 - 1)) << 1;
+            Index idx = new Index(capacity, stocks.size());
+            for (Stock stock : stocks) {
+                long key = encode(stock.getStockCode());
+                if (key == 0) continue;
+                int i = slot(key, idx.mask);
+                while (idx.keys[i] != 0 && idx.keys[i] != key) i = (i + 1) & idx.mask;
+                idx.keys[i] = key;
+                idx.ids[i] = stock.getStockId();
+                idx.names[i] = stock.getStockName();
+            }
+            return idx;
+        }
+
+        long idOf(String stockCode) {
+            int i = find(stockCode);
+            return i < 0 ? -1 : ids[i];
+        }
+
+        String nameOf(String stockCode) {
+            int i = find(stockCode);
+            return i < 0 ? null : names[i];
+        }
+
+        private int find(String stockCode) {
+            long key = encode(stockCode);
+            if (key == 0) return -1;
+            int i = slot(key, mask);
+            long k;
+            while ((k = keys[i]) != 0) {
+                if (k == key) return i;
+                i = (i + 1) & mask;
+            }
+            return -1;
+        }
+
+        private static int slot(long key, int mask) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h >>> 32) & mask;
+        }
+
+        // '0'-'9' → 1..10, 'A'-'Z' → 11..36 (0 은 빈 칸 표시용). 형식이 아니면 0
+        private static long encode(String code) {
+            if (code == null || code.length() != CODE_LENGTH) return 0;
+            long key = 0;
+            for (int i = 0; i < CODE_LENGTH; i++) {
+                char c = code.charAt(i);
+                int v;
+                if (c >= '0' && c <= '9') v = c - '0' + 1;
+                else if (c >= 'A' && c <= 'Z') v = c - 'A' + 11;
+                else return 0;
+                key = (key << 6) | v;
+            }
+            return key;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package org.example.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.StageLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 종목 마스터 파일(stocks_data.csv) 적재기.
+ * 파일을 한 줄씩 읽어 현재 stock 테이블과 비교한 뒤 신규 상장은 insert, 종목명 변경은 update,
+ * 파일에서 빠진 종목(상장폐지)은 delete 를 각각 JDBC 배치 한 번으로 반영한다.
+ * 빈 테이블이면 전부 insert 한 번이 되고, 이미 같은 내용이면 조회 한 번으로 끝난다.
+ */
+@Service
+@RequiredArgsConstructor
+public class StockMasterLoader {
+
+    private static final StageLog STOCK_LOG = new StageLog("stock", 1);
+
+    private static final String SELECT_SQL = "SELECT stock_id, stock_code, stock_name FROM stock";
+    private static final String INSERT_SQL = "INSERT INTO stock (stock_code, stock_name) VALUES (?, ?)";
+    private static final String RENAME_SQL = "UPDATE stock SET stock_name = ? WHERE stock_id = ?";
+    // 주문이 걸린 적 있는 종목은 FK 때문에 지우지 않고 남겨 둠
+    private static final String DELIST_SQL =
+            "DELETE FROM stock WHERE stock_id = ? AND NOT EXISTS (SELECT 1 FROM offer o WHERE o.stock_id = ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StockCache stockCache;
+
+    @Value("${stock.master.location:classpath:stocks_data.csv}")
+    private Resource masterFile;
+
+    @Value("${stock.master.batch-size:1000}")
+    private int batchSize;
+
+    public record Result(int listed, int renamed, int delisted, int unchanged) {}
+
+    private record Existing(long stockId, String stockName) {}
+
+    // 주기적 갱신 (기본 꺼짐, 예: stock.master.refresh-cron=0 0 7 * * MON-FRI)
+    @Scheduled(cron = "${stock.master.refresh-cron:-}")
+    public void scheduledRefresh() {
+        try {
+            load();
+        } catch (Exception e) {
+            STOCK_LOG.log().warn("⚠️ 종목 마스터 갱신 실패", e);
+        }
+    }
+
+    public Result load() throws IOException {
+        long start = System.nanoTime();
+        Map<String, String> master = readMaster();
+
+        Result result = transactionTemplate.execute(status -> apply(master));
+        stockCache.refresh();
+
+        STOCK_LOG.log().info("✅ 종목 마스터 반영: 신규 {} / 변경 {} / 폐지 {} / 유지 {} ({}ms)",
+                result.listed(), result.renamed(), result.delisted(), result.unchanged(),
+                (System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+
+    // 종목코드 → 종목명 (파일 순서 유지, 첫 줄 헤더 제외)
+    private Map<String, String> readMaster() throws IOException {
+        Map<String, String> master = new LinkedHashMap<>();
+        try (BufferedReader br = new BufferedReader(
+                new InputStreamReader(masterFile.getInputStream(), StandardCharsets.UTF_8))) {
+            br.readLine(); // 헤더 건너뛰기
+            String line;
+            while ((line = br.readLine()) != null) {
+                int comma = line.indexOf(',');
+                if (comma < 0) continue;
+                String code = line.substring(0, comma).trim();
+                String name = line.substring(comma + 1).trim();
+                if (!code.isEmpty()) master.put(code, name);
+            }
+        }
+        return master;
+    }
+
+    private Result apply(Map<String, String> master) {
+        Map<String, Existing> existing = new HashMap<>();
+        jdbcTemplate.query(SELECT_SQL, rs -> {
+            existing.put(rs.getString("stock_code"), new Existing(rs.getLong("stock_id"), rs.getString("stock_name")));
+        });
+
+        List<Object[]> listings = new ArrayList<>();
+        List<Object[]> renames = new ArrayList<>();
+        int unchanged = 0;
+        for (Map.Entry<String, String> e : master.entrySet()) {
+            Existing row = existing.remove(e.getKey());
+            if (row == null) {
+                listings.add(new Object[]{e.getKey(), e.getValue()});
+            } else if (!e.getValue().equals(row.stockName())) {
+                renames.add(new Object[]{e.getValue(), row.stockId()});
+            } else {
+                unchanged++;
+            }
+        }
+        // 남은 것 = 파일에서 빠진 종목
+        List<Object[]> delistings = new ArrayList<>();
+        for (Existing row : existing.values()) {
+            delistings.add(new Object[]{row.stockId(), row.stockId()});
+        }
+
+        batch(INSERT_SQL, listings);
+        batch(RENAME_SQL, renames);
+        int delisted = 0;
+        for (int[] counts : batch(DELIST_SQL, delistings)) {
+            for (int c : counts) if (c > 0) delisted++;
+        }
+        return new Result(listings.size(), renames.size(), delisted, unchanged);
+    }
+
+    private List<int[]> batch(String sql, List<Object[]> args) {
+        List<int[]> counts = new ArrayList<>();
+        for (int from = 0; from < args.size(); from += batchSize) {
+            counts.add(jdbcTemplate.batchUpdate(sql, args.subList(from, Math.min(args.size(), from + batchSize))));
+        }
+        return counts;
+    }
+}
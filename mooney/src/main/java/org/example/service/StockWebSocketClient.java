@@ -1,300 +1,263 @@
 package org.example.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
-import jakarta.websocket.*;
+import jakarta.annotation.PreDestroy;
+import jakarta.websocket.ClientEndpointConfig;
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.ContainerProvider;
+import jakarta.websocket.WebSocketContainer;
 import lombok.RequiredArgsConstructor;
+import org.example.StageLog;
 import org.example.TradeWebSocketHandler;
+import org.example.marketdata.FrameJournalWriter;
+import org.example.matching.MatchingEngine;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import javax.crypto.Cipher;
-import javax.crypto.spec.IvParameterSpec;
-import javax.crypto.spec.SecretKeySpec;
 import java.net.URI;
-import java.nio.charset.StandardCharsets;
-import java.util.Base64;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * KIS 실시간 체결 연결 관리.
+ * - 연결이 끊기면 지수 백오프로 재연결하고, 재연결된 세션은 배정된 종목을 다시 구독한다.
+ * - 연결 실패가 이어지면 approval_key 를 새로 발급받아 재시도한다.
+ * - 세션당 구독 한도가 차면 새 세션을 열어(kis.max-sessions 까지) 종목을 나눠 담는다.
+ * 접속 주소는 kis.websocket-url 이므로 녹화 프레임을 재생하는 로컬 스텁 서버로 바꿔 붙일 수 있다.
+ */
 @Service
-@ClientEndpoint
 @RequiredArgsConstructor
 public class StockWebSocketClient {
 
+    private static final StageLog SESSION_LOG = new StageLog("feed.session", 1);
+
     private final ApprovalKeyService approvalKeyService;
     private final TradeWebSocketHandler tradeWebSocketHandler;
-    private final OfferService offerService;
+    private final MatchingEngine matchingEngine;
+    private final KisSubscriptionManager subscriptionManager;
+    private final CandleService candleService;
+    private final MeterRegistry meterRegistry;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Value("${kis.websocket-url}")
     private String websocketUrl;
 
-    private Session userSession;
+    @Value("${kis.max-sessions:3}")
+    private int maxSessions;
 
-    /** trId:trKey 별 iv/key 저장 (예: "H0STCNT0:005930") */
-    private final Map<String, KeyIv> cipherMap = new ConcurrentHashMap<>();
+    @Value("${kis.max-subscriptions-per-session:40}")
+    private int maxSubscriptionsPerSession;
 
-    private final java.util.Set<String> subscribed = java.util.concurrent.ConcurrentHashMap.newKeySet();
+    @Value("${kis.reconnect.initial-delay-ms:1000}")
+    private long initialReconnectDelayMs;
 
-    private record KeyIv(byte[] iv, byte[] key) {}
+    @Value("${kis.reconnect.max-delay-ms:60000}")
+    private long maxReconnectDelayMs;
 
-    // 애플리케이션 시작 시 WebSocket 연결
-    @PostConstruct
-    public void init() {
-        connect();
-    }
+    // false 면 KIS 에 접속하지 않음 (기록 재생 전용 기동)
+    @Value("${kis.live.enabled:true}")
+    private boolean liveEnabled;
 
-    private void connect() {
-        try {
-            WebSocketContainer container = ContainerProvider.getWebSocketContainer();
-            container.connectToServer(this, URI.create(websocketUrl));
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    }
+    @Value("${kis.recorder.enabled:false}")
+    private boolean recorderEnabled;
 
-    @OnOpen
-    public void onOpen(Session session) {
-        System.out.println("✅ WebSocket Connected");
-        this.userSession = session;
-
-        // 최초 한 번 동기화 트리거 (아래의 scheduled와 동일한 로직 재사용)
-        syncSubscriptions();
-    }
+    @Value("${kis.recorder.dir:./frames}")
+    private String recorderDir;
 
-    @Scheduled(fixedDelay = 10_000) // 10초마다; 필요에 맞게 조절
-    public void syncSubscriptions() {
-        try {
-            // 세션이 열려 있어야 구독 가능
-            if (userSession == null || !userSession.isOpen()) return;
+    @Value("${kis.recorder.segment-mb:256}")
+    private int recorderSegmentMb;
 
-            List<String> pendingStockCodes = offerService.getPendingStockCodes();
+    // 체결 틱 디버그 로그는 N 건에 한 건만
+    @Value("${log.sample.tick:1000}")
+    private long tickLogSample;
 
-            // 검증용 고유동성 종목 하나 추가 (선택)
-            if (!pendingStockCodes.contains("005930")) {
-                pendingStockCodes.add("005930");
-            }
+    private FrameJournalWriter recorder;
+    private StageLog tickLog;
 
-            // DB목록 - 이미구독 = 새로 구독할 종목
-            for (String code : pendingStockCodes) {
-                if (code == null || code.isBlank()) continue;
-                if (subscribed.contains(code)) continue; // 이미 구독함
-                subscribeStock(code, "H0STCNT0");       // 구독 요청
-                subscribed.add(code);                    // 중복방지 등록
-            }
+    private Counter frameCounter;
+    private Counter droppedFrameCounter;
+    private Counter tickCounter;
+    private Timer frameTimer;
 
-            // (옵션) DB에서 제거된 종목을 자동 해지하고 싶으면 아래 로직 추가:
-            // Set<String> dbSet = new HashSet<>(pendingStockCodes);
-            // for (String code : new HashSet<>(subscribed)) {
-            //     if (!dbSet.contains(code) && !"005930".equals(code)) {
-            //         unsubscribeStock(code, "H0STCNT0");
-            //         subscribed.remove(code);
-            //     }
-            // }
+    private final List<KisSession> sessions = new CopyOnWriteArrayList<>();
 
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    }
+    // 종목코드 → 그 종목을 구독 중인 세션 (구독 관리 스레드에서만 변경)
+    private final Map<String, KisSession> assignments = new ConcurrentHashMap<>();
 
+    private ScheduledExecutorService reconnector;
+    private volatile boolean shuttingDown;
 
-    @OnMessage
-    public void onMessage(String message) {
-        // 1) 메시지가 JSON인지 먼저 판별
-        if (!looksLikeJson(message)) {
-            // 복호화된 파이프 텍스트가 여기로 들어왔다면, 절대 readTree() 호출 금지
-            handlePipeFrame(message); // "A|B|C|..." → split 처리
+    // 애플리케이션 시작 시 첫 세션 연결 (연결은 별도 스레드에서; 실패해도 백오프로 계속 시도)
+    @PostConstruct
+    public void init() throws Exception {
+        tickLog = new StageLog("feed", tickLogSample);
+        frameCounter = Counter.builder("mooney.feed.frames")
+                .description("KIS 에서 받은 프레임 수")
+                .register(meterRegistry);
+        droppedFrameCounter = Counter.builder("mooney.feed.frames.dropped")
+                .description("깨졌거나 복호화 키가 없어 버린 프레임 수")
+                .register(meterRegistry);
+        tickCounter = Counter.builder("mooney.ticks")
+                .description("파싱된 체결 틱 수")
+                .register(meterRegistry);
+        frameTimer = Timer.builder("mooney.feed.frame.latency")
+                .description("프레임 한 개의 파싱/복호화와 하위 단계 전달에 걸린 시간")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("mooney.kis.subscribed", assignments, Map::size)
+                .description("KIS 세션에 배정된 구독 종목 수")
+                .register(meterRegistry);
+
+        if (!liveEnabled) {
+            SESSION_LOG.log().info("ℹ️ kis.live.enabled=false → KIS 실시간 접속 생략");
             return;
         }
-
-        try {
-            JsonNode root = objectMapper.readTree(message);
-            JsonNode header = root.path("header");
-            String trId = header.path("tr_id").asText("");
-
-            // keep-alive
-            if ("PINGPONG".equalsIgnoreCase(trId)) return;
-
-            JsonNode body = root.path("body");
-
-            // (A) 구독 성공: iv/key 저장
-            if (body.has("output") && body.path("output").has("iv") && body.path("output").has("key")) {
-                String ivHex  = body.path("output").path("iv").asText();
-                String keyHex = body.path("output").path("key").asText();
-                String trKey  = header.path("tr_key").asText(""); // 없는 경우도 있으니 대비
-                cipherMap.put(trId + ":" + trKey, new KeyIv(hexToBytes(ivHex), hexToBytes(keyHex)));
-                System.out.printf("🔐 SUBSCRIBE SUCCESS: %s/%s (iv,key 저장)%n", trId, trKey);
-                return;
-            }
-
-            // (B) 실데이터: content(Base64) → 복호화 → 파이프 split
-            if (body.has("content")) {
-                String contentB64 = body.path("content").asText();
-                String trKey = header.path("tr_key").asText("");
-                KeyIv keyIv = cipherMap.get(trId + ":" + trKey);
-                if (keyIv == null) {
-                    System.out.printf("⚠️ iv/key 없음: %s/%s%n", trId, trKey);
-                    return;
-                }
-                String decrypted = decryptBase64(contentB64, keyIv.iv(), keyIv.key());
-                handleDecryptedFrame(trId, trKey, decrypted); // 여기서 split 처리
-                return;
-            }
-
-            // (C) 그 외
-            System.out.println("📨 수신(기타): " + message);
-
-        } catch (Exception e) {
-            // 여기서 발생하던 JsonParseException은 더이상 나오면 안 됨
-            e.printStackTrace();
+        if (recorderEnabled) {
+            recorder = new FrameJournalWriter(Path.of(recorderDir), recorderSegmentMb * 1024 * 1024);
+            SESSION_LOG.log().info("📼 KIS 원본 프레임 기록: {}", recorderDir);
         }
+        reconnector = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "kis-reconnect");
+            t.setDaemon(true);
+            return t;
+        });
+        // 첫 세션을 먼저 만들어 둬야 bind 직후의 구독이 세션을 하나 더 열지 않음
+        openSession();
+        subscriptionManager.bind(this::sendSubscription, maxSessions * maxSubscriptionsPerSession);
     }
 
-    /** message가 JSON처럼 보이는지 매우 보수적으로 판단 */
-    private boolean looksLikeJson(String s) {
-        if (s == null) return false;
-        String t = s.trim();
-        return (t.startsWith("{") && t.endsWith("}")) || (t.startsWith("[") && t.endsWith("]"));
+    String approvalKey() {
+        return approvalKeyService.getApprovalKey();
     }
 
-    /** 복호화된 파이프 프레임을 직접 받은 경우(실수로 message에 넣어 호출됐다면)도 안전 처리 */
-    /** 파이프 전문에서 체결가만 추출해 matchOrders 호출 (KIS 포맷: enc|TR_ID|count|rec...) */
-    private void handlePipeFrame(String frame) {
-        if (frame == null || frame.isBlank()) return;
+    /* ===== 구독 배정 (KisSubscriptionManager 스레드) ===== */
 
-        // 예: 0|H0STCNT0|004|005930^123929^73100^...|005930^...|...
-        String[] f = frame.split("\\|", -1);
-        if (f.length < 4) {
-            System.out.println("⚠️ 예상보다 짧은 파이프 프레임: " + frame);
-            return;
+    private boolean sendSubscription(String stockCode, boolean subscribe) {
+        if (!subscribe) {
+            KisSession session = assignments.remove(stockCode);
+            if (session == null) return false;
+            session.unsubscribe(stockCode);
+            return true;
         }
 
-        // 채널 위치 동적 판별 (환경에 따라 f[0] 또는 f[1]에 올 수 있음)
-        int chIdx;
-        if ("H0STCNT0".equalsIgnoreCase(f[1].trim())) chIdx = 1;
-        else if ("H0STCNT0".equalsIgnoreCase(f[0].trim())) chIdx = 0;
-        else {
-            // 체결 채널이 아니면 스킵 (필요하면 다른 채널 분기 추가)
-            // System.out.println("ℹ️ not CNT channel: " + Arrays.toString(f));
-            return;
-        }
-
-        final String trId = f[chIdx].trim();
-        final int countIdx = chIdx + 1; // 데이터 건수
-        final int recStart = chIdx + 2; // 첫 레코드 시작 인덱스
-
-        int count = parseIntSafe(f[countIdx]);
-        if (count <= 0) {
-            // 건수가 0이거나 파싱 실패하면, f[recStart..] 전부를 레코드로 간주 (페일세이프)
-            count = Math.max(0, f.length - recStart);
+        KisSession session = assignments.get(stockCode);
+        if (session == null) {
+            session = pickSession();
+            if (session == null) return false;
+            assignments.put(stockCode, session);
         }
+        // 연결이 끊겨 있어도 배정은 유지 → 재연결 시 구독됨
+        session.subscribe(stockCode);
+        return true;
+    }
 
-        for (int i = 0; i < count; i++) {
-            int idx = recStart + i;
-            if (idx >= f.length) break;          // 방어
-            String rec = f[idx];
-            if (rec == null || rec.isBlank()) continue;
-
-            // rec: 종목^시간^체결가^...
-            String[] a = rec.split("\\^", -1);
-            if (a.length < 3) continue;
-
-            String stockCode = a[0].trim();
-            int price        = parseIntSafe(a[2]); // ★ 체결가
-            if (!stockCode.isEmpty() && price > 0) {
-                System.out.printf("\uD83D\uDCB0 : %d%n", price);
-                offerService.matchOrders(stockCode, price);
-                tradeWebSocketHandler.sendTrade(stockCode, price);
-                // 필요시 디버그:
-                System.out.printf("📊 [CNT %s] @ %d | raw:%s%n", stockCode, price, rec);
-            }
+    // 여유가 가장 많은 세션, 모두 찼으면 새 세션
+    private KisSession pickSession() {
+        KisSession best = null;
+        for (KisSession s : sessions) {
+            if (s.load() >= maxSubscriptionsPerSession) continue;
+            if (best == null || s.load() < best.load()) best = s;
         }
+        if (best != null) return best;
+        if (sessions.size() >= maxSessions) return null;
+        return openSession();
     }
 
-    /** 정상 경로: content 복호화 후 채널별 파싱 */
-    private void handleDecryptedFrame(String trId, String trKey, String decrypted) {
-        String[] f = decrypted.split("\\|");
-        if ("H0STCNT0".equals(trId)) {
-            // 체결: 문서에 맞춰 인덱스 조정
-            int price = parseIntSafe(f[3]);  // 예시: [3] 체결가
-            String time = f[2];              // 예시: [2] 시간
-            String stockCode = (trKey == null || trKey.isBlank()) ? f[0] : trKey;
-            offerService.matchOrders(stockCode, price);
-            System.out.printf("📊 [CNT %s] 가격:%d 시간:%s | raw:%s%n", stockCode, price, time, decrypted);
-        } else if ("H0STASP0".equals(trId)) {
-            System.out.printf("📈 [ASP %s] %s%n", trKey, decrypted);
-        } else {
-            System.out.printf("ℹ️ [%s %s] %s%n", trId, trKey, decrypted);
-        }
+    private KisSession openSession() {
+        KisSession session = new KisSession(sessions.size(), this, objectMapper, this::onTick, recorder);
+        sessions.add(session);
+        reconnector.execute(() -> connect(session));
+        return session;
     }
 
-    // 종목별 구독 요청
-    private void subscribeStock(String stockCode, String trId) {
-        try {
-            String approvalKey = approvalKeyService.getApprovalKey();
-
-            String subscribeMsg = """
-            {
-              "header": {
-                "approval_key": "%s",
-                "custtype": "P",
-                "tr_type": "1",
-                "content-type": "utf-8"
-              },
-              "body": {
-                "input": {
-                  "tr_id": "%s",
-                  "tr_key": "%s"
-                }
-              }
-            }
-            """.formatted(approvalKey, trId, stockCode);
+    /* ===== 연결 / 재연결 (kis-reconnect 스레드) ===== */
 
-            if (userSession != null && userSession.isOpen()) {
-                userSession.getBasicRemote().sendText(subscribeMsg);
-                System.out.printf("📩 구독 요청: %s / %s%n", trId, stockCode);
+    private void connect(KisSession session) {
+        if (shuttingDown || session.isOpen()) return;
+        try {
+            // 연속 실패 중이면 만료/폐기된 키일 수 있으므로 새로 발급
+            if (session.reconnectAttempts > 0) {
+                approvalKeyService.invalidate();
             }
+            WebSocketContainer container = ContainerProvider.getWebSocketContainer();
+            container.connectToServer(session, ClientEndpointConfig.Builder.create().build(), URI.create(websocketUrl));
         } catch (Exception e) {
-            e.printStackTrace();
+            SESSION_LOG.log().warn("⚠️ [세션 {}] 연결 실패: {}", session.index(), e.getMessage());
+            scheduleReconnect(session);
         }
     }
 
-    @OnClose
-    public void onClose(Session session, CloseReason reason) {
-        System.out.println("❌ WebSocket Closed: " + reason);
-        // 재연결/백오프 로직 추가 가능
+    private void scheduleReconnect(KisSession session) {
+        if (shuttingDown) return;
+        int attempt = session.reconnectAttempts++;
+        long delay = Math.min(maxReconnectDelayMs, initialReconnectDelayMs << Math.min(attempt, 16));
+        delay += ThreadLocalRandom.current().nextLong(delay / 5 + 1); // 동시 재접속 분산
+        SESSION_LOG.log().info("🔁 [세션 {}] {}ms 후 재연결 ({}회째)", session.index(), delay, attempt + 1);
+        reconnector.schedule(() -> connect(session), delay, TimeUnit.MILLISECONDS);
     }
 
-    @OnError
-    public void onError(Session session, Throwable throwable) {
-        throwable.printStackTrace();
+    void onSessionOpened(KisSession session) {
+        SESSION_LOG.log().info("✅ [세션 {}] WebSocket Connected", session.index());
+        if (shuttingDown) return;
+        reconnector.execute(() -> session.reconnectAttempts = 0);
     }
 
-    /* ===== Utils ===== */
+    void onSessionClosed(KisSession session, CloseReason reason) {
+        SESSION_LOG.log().warn("❌ [세션 {}] WebSocket Closed: {}", session.index(), reason);
+        if (shuttingDown) return;
+        reconnector.execute(() -> scheduleReconnect(session));
+    }
+
+    /* ===== 체결 수신 (각 세션 수신 스레드) ===== */
 
-    private static int parseIntSafe(String s) {
-        try { return Integer.parseInt(s.trim()); } catch (Exception e) { return 0; }
+    // 기록 재생용: 실시간과 같은 파이프라인으로 프레임을 처리할 세션 (접속/기록 없음)
+    KisSession replaySession() {
+        return new KisSession(-1, this, objectMapper, this::onTick, null);
     }
 
-    private static byte[] hexToBytes(String hex) {
-        int len = hex.length();
-        byte[] out = new byte[len / 2];
-        for (int i = 0; i < len; i += 2) {
-            out[i / 2] = (byte) ((Character.digit(hex.charAt(i), 16) << 4)
-                    + Character.digit(hex.charAt(i + 1), 16));
+    // 프레임 한 개 처리 결과 (각 세션 수신 스레드)
+    void recordFrame(long startedAt, boolean dropped) {
+        frameCounter.increment();
+        if (dropped) droppedFrameCounter.increment();
+        frameTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    }
+
+    /** 파싱된 체결 한 건: 매칭 엔진과 화면으로 전달 */
+    private void onTick(String stockCode, int time, int price, long volume) {
+        tickCounter.increment();
+        subscriptionManager.touch(stockCode);
+        matchingEngine.onTick(stockCode, price, volume, System.nanoTime());
+        tradeWebSocketHandler.sendTrade(stockCode, price);
+        candleService.onTick(stockCode, time, price, volume);
+        if (tickLog.sampled()) {
+            tickLog.log().atDebug().setMessage("tick")
+                    .addKeyValue("code", stockCode)
+                    .addKeyValue("price", price)
+                    .addKeyValue("volume", volume)
+                    .addKeyValue("time", time)
+                    .log();
         }
-        return out;
     }
 
-    private static String decryptBase64(String base64, byte[] iv, byte[] key) throws Exception {
-        byte[] enc = Base64.getDecoder().decode(base64);
-        Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding"); // (PKCS7 호환)
-        cipher.init(Cipher.DECRYPT_MODE, new SecretKeySpec(key, "AES"), new IvParameterSpec(iv));
-        byte[] dec = cipher.doFinal(enc);
-        return new String(dec, StandardCharsets.UTF_8);
+    @PreDestroy
+    public void shutdown() throws Exception {
+        shuttingDown = true;
+        if (reconnector != null) reconnector.shutdownNow();
+        for (KisSession session : sessions) {
+            session.close();
+        }
+        if (recorder != null) recorder.close();
     }
-}
\ No newline at end of file
+}
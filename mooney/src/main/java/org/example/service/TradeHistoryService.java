@@ -0,0 +1,102 @@
+package org.example.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.example.dto.HistoryPage;
+import org.example.dto.TradeHistoryDto;
+import org.example.repository.TradeHistoryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class TradeHistoryService {
+
+    private static final String EXPORT_SQL = """
+            SELECT history_id, offer_id, account_id, stock_code, offer_side, trade_price, trade_cnt, traded_at
+            FROM trade_history
+            WHERE account_id = ? AND traded_at >= ? AND traded_at < ?
+            ORDER BY traded_at""";
+
+    private final TradeHistoryRepository tradeHistoryRepository;
+    private final DataSource dataSource;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Value("${history.page.max-size:500}")
+    private int maxPageSize;
+
+    // 0 이면 DB 에 맞춰 정함: MySQL 은 Integer.MIN_VALUE 일 때만 한 행씩 스트리밍, 그 외(H2 등)는 음수를 거부하므로 양수
+    @Value("${history.export.fetch-size:0}")
+    private int exportFetchSize;
+
+    @PostConstruct
+    public void init() throws SQLException {
+        if (exportFetchSize != 0) return;
+        try (Connection connection = dataSource.getConnection()) {
+            boolean mysql = "MySQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+            exportFetchSize = mysql ? Integer.MIN_VALUE : 500;
+        }
+    }
+
+    public HistoryPage byAccount(Long accountId, Long before, int size) {
+        PageRequest pageRequest = pageRequest(size);
+        return page(tradeHistoryRepository.findByAccount(accountId, cursor(before), pageRequest), pageRequest.getPageSize());
+    }
+
+    public HistoryPage byStock(String stockCode, Long before, int size) {
+        PageRequest pageRequest = pageRequest(size);
+        return page(tradeHistoryRepository.findByStock(stockCode, cursor(before), pageRequest), pageRequest.getPageSize());
+    }
+
+    /**
+     * 기간 내 계좌 체결 이력을 NDJSON(한 줄에 한 건)으로 흘려보냄.
+     * 결과셋을 행 단위로 읽어 바로 쓰므로 기간이 길어도 힙에 모아 두지 않는다.
+     */
+    public void exportByAccount(Long accountId, LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        JdbcTemplate streaming = new JdbcTemplate(dataSource);
+        streaming.setFetchSize(exportFetchSize);
+
+        try (SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+            streaming.query(EXPORT_SQL, rs -> {
+                try {
+                    writer.write(new TradeHistoryDto(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getString(4),
+                            rs.getString(5), rs.getLong(6), rs.getInt(7), rs.getTimestamp(8).toLocalDateTime()));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, accountId, Timestamp.valueOf(from), Timestamp.valueOf(to));
+        }
+    }
+
+    private static Long cursor(Long before) {
+        return before == null ? Long.MAX_VALUE : before;
+    }
+
+    private PageRequest pageRequest(int size) {
+        return PageRequest.of(0, Math.max(1, Math.min(size, maxPageSize)));
+    }
+
+    // size 는 실제로 조회한 (잘린) 크기. 요청 크기와 비교하면 max-size 를 넘긴 요청에서 다음 커서가 사라짐
+    private static HistoryPage page(List<TradeHistoryDto> items, int size) {
+        Long next = items.isEmpty() || items.size() < size ? null : items.get(items.size() - 1).historyId();
+        return new HistoryPage(items, next);
+    }
+}
@@ -0,0 +1,269 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.example.StageLog;
+import org.example.matching.Fill;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 체결 write-behind 저널.
+ * 매칭 샤드는 체결을 큐에 넣기만 하고, 전용 스레드가 건수/시간 기준으로 모아 JDBC 배치로 반영한다.
+ * 한 번의 flush 에서 주문 체결수량/상태 변경, Trade insert, 계좌 변동분(balance_delta) insert,
+ * 조회용 체결 이력(trade_history) insert 가 각각 하나의 배치 문장으로 나간다.
+ * 계좌 행은 건드리지 않으므로 같은 계좌의 체결끼리 행 잠금을 다투지 않는다 (합산은 AccountLedger 스냅샷).
+ * 주문 이벤트 저널이 켜져 있으면 체결마다 저널 seq 가 붙는다. 체결은 seq 순으로 들어와 그 순서대로만 반영되므로,
+ * 배치의 마지막 seq 를 같은 트랜잭션에서 체크포인트로 남기면 체크포인트 이하의 체결은 빠짐없이 DB 에 있다.
+ */
+@Service
+@RequiredArgsConstructor
+public class TradeJournal {
+
+    private static final StageLog PERSIST_LOG = new StageLog("persist", 1);
+
+    // 체결 수량 누적, 다 차면 FILLED(1) + 종료 시각. 취소된 주문은 상태 유지
+    // MySQL 은 SET 을 왼쪽부터 갱신된 값으로 평가하므로 누적값/상태를 참조하는 식을 앞에 둔다
+    private static final String UPDATE_OFFER_SQL = """
+            UPDATE offer SET
+                offer_closed_at = CASE WHEN offer_status = 0 AND offer_filled_cnt + ? >= offer_cnt THEN CURRENT_TIMESTAMP ELSE offer_closed_at END,
+                offer_status = CASE WHEN offer_status = 0 AND offer_filled_cnt + ? >= offer_cnt THEN 1 ELSE offer_status END,
+                offer_filled_cnt = offer_filled_cnt + ?
+            WHERE offer_id = ?""";
+    private static final String INSERT_TRADE_SQL =
+            "INSERT INTO trade (offer_id, trade_price, trade_cnt) VALUES (?, ?, ?)";
+    private static final String INSERT_HISTORY_SQL = """
+            INSERT INTO trade_history (offer_id, account_id, stock_code, offer_side, trade_price, trade_cnt, traded_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?)""";
+    private static final String INSERT_DELTA_SQL =
+            "INSERT INTO balance_delta (account_id, offer_id, amount) VALUES (?, ?, ?)";
+
+    private static final String UPDATE_CHECKPOINT_SQL =
+            "UPDATE order_journal_checkpoint SET last_seq = GREATEST(last_seq, ?) WHERE id = 1";
+    private static final String SELECT_CHECKPOINT_SQL =
+            "SELECT last_seq FROM order_journal_checkpoint WHERE id = 1";
+
+    // 이만큼 연속 실패한 배치는 반으로 나눠 문제 행을 골라냄
+    private static final int SPLIT_AFTER_ATTEMPTS = 3;
+    private static final long MAX_BACKOFF_MS = 5_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${fills.write-behind.queue-capacity:65536}")
+    private int queueCapacity;
+
+    @Value("${fills.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${fills.write-behind.flush-interval-ms:50}")
+    private long flushIntervalMs;
+
+    // 큐에 들어간 시각을 함께 보관해 저장 지연(lag)을 잰다. tradedAt 은 이력에 남길 매칭 시각(epoch ms), seq 는 주문 저널 순번 (없으면 0)
+    private record Pending(Fill fill, long enqueuedAt, long tradedAt, long seq) {}
+
+    private BlockingQueue<Pending> queue;
+    private Thread writer;
+    private volatile boolean running = true;
+    // 큐에 넣은 체결 수 / DB 에 반영한 체결 수 (큐가 FIFO 이므로 앞에서부터 반영됨)
+    private final AtomicLong appended = new AtomicLong();
+    private volatile long written;
+    // 이 seq 이하의 체결은 모두 DB 에 반영됨
+    private volatile long checkpoint;
+    // 마지막으로 받은 체결의 seq (순서 검사용, append 는 저널 스레드 또는 복구 스레드 한 곳에서만 호출)
+    private long appendedSeq;
+
+    private Counter backpressureCounter;
+    private Counter failedCounter;
+    private Timer flushTimer;
+    private Timer lagTimer;
+    private DistributionSummary batchSizeSummary;
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        checkpoint = jdbcTemplate.queryForObject(SELECT_CHECKPOINT_SQL, Long.class);
+
+        Gauge.builder("mooney.fills.queue.size", queue, BlockingQueue::size)
+                .description("DB 반영 대기 중인 체결 수")
+                .register(meterRegistry);
+        backpressureCounter = Counter.builder("mooney.fills.backpressure")
+                .description("큐가 가득 차 매칭 스레드가 대기한 횟수")
+                .register(meterRegistry);
+        failedCounter = Counter.builder("mooney.fills.flush.failures")
+                .description("실패해 다시 시도한 flush 횟수")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("mooney.fills.flush.latency")
+                .description("배치 한 번을 DB에 반영하는 데 걸린 시간")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        lagTimer = Timer.builder("mooney.fills.persist.lag")
+                .description("체결 발생부터 DB 반영까지 걸린 시간")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        batchSizeSummary = DistributionSummary.builder("mooney.fills.batch.size")
+                .description("flush 당 체결 건수")
+                .register(meterRegistry);
+
+        writer = new Thread(this::runWriter, "trade-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public long checkpoint() {
+        return checkpoint;
+    }
+
+    // 체결 적재. 큐가 가득 차면 자리가 날 때까지 호출 스레드를 막는다 (배압)
+    // seq 가 역행하면 체크포인트가 반영 안 된 체결을 건너뛸 수 있으므로 받지 않음
+    public void append(Fill fill, long seq, long tradedAt) {
+        if (seq > 0) {
+            if (seq <= appendedSeq) throw new IllegalStateException("체결 seq 역행: " + seq + " <= " + appendedSeq);
+            appendedSeq = seq;
+        }
+        Pending pending = new Pending(fill, System.nanoTime(), tradedAt, seq);
+        if (queue.offer(pending)) {
+            appended.incrementAndGet();
+            return;
+        }
+
+        backpressureCounter.increment();
+        try {
+            queue.put(pending);
+            appended.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runWriter() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+
+                // 첫 건 이후 flush 간격 안에 들어온 체결을 batchSize 까지 모음
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) break;
+                    Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+
+                flushUntilWritten(batch);
+                written += batch.size();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // 이 호출 전에 들어온 체결이 모두 DB 에 반영될 때까지 대기 (PENDING 주문을 DB 에서 다시 읽기 전에 사용)
+    // 큐가 비기를 기다리지 않으므로 다른 종목의 체결이 계속 들어와도 끝난다
+    public void awaitFlushed() throws InterruptedException {
+        long target = appended.get();
+        while (written < target) {
+            Thread.sleep(10);
+        }
+    }
+
+    // 마감 시각(System.nanoTime 기준)까지만 기다림. 그 안에 다 반영되면 true
+    public boolean awaitFlushed(long deadline) throws InterruptedException {
+        long target = appended.get();
+        while (written < target) {
+            if (System.nanoTime() - deadline >= 0) return false;
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    // 반영될 때까지 포기하지 않음. AccountLedger 는 이미 현금을 옮겼으므로 체결을 버리면 DB 와 영영 어긋난다.
+    // 몇 번 실패한 배치는 반으로 나눠 앞쪽부터 반영하고, 끝까지 실패하는 한 건만 붙잡고 재시도한다 (순서 유지).
+    // 그동안 큐가 차면 append 가 막혀 매칭 스레드까지 배압이 걸린다
+    private void flushUntilWritten(List<Pending> batch) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                flushTimer.record(() -> flush(batch));
+                long now = System.nanoTime();
+                for (Pending p : batch) {
+                    lagTimer.record(now - p.enqueuedAt(), TimeUnit.NANOSECONDS);
+                }
+                batchSizeSummary.record(batch.size());
+                PERSIST_LOG.log().atDebug().setMessage("flush").addKeyValue("fills", batch.size())
+                        .addKeyValue("seq", batch.get(batch.size() - 1).seq()).log();
+                return;
+            } catch (Exception e) {
+                failedCounter.increment();
+                var event = PERSIST_LOG.log().atError().setMessage("⚠️ 체결 저장 실패")
+                        .addKeyValue("fills", batch.size()).addKeyValue("attempt", attempt).setCause(e);
+                if (batch.size() == 1) event = event.addKeyValue("seq", batch.get(0).seq()).addKeyValue("fill", batch.get(0).fill());
+                event.log();
+                if (batch.size() > 1 && attempt >= SPLIT_AFTER_ATTEMPTS) {
+                    int half = batch.size() / 2;
+                    flushUntilWritten(new ArrayList<>(batch.subList(0, half)));
+                    flushUntilWritten(new ArrayList<>(batch.subList(half, batch.size())));
+                    return;
+                }
+                Thread.sleep(Math.min(100L * attempt, MAX_BACKOFF_MS));
+            }
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        List<Object[]> offerArgs = new ArrayList<>(batch.size());
+        List<Object[]> tradeArgs = new ArrayList<>(batch.size());
+        List<Object[]> deltaArgs = new ArrayList<>(batch.size());
+        List<Object[]> historyArgs = new ArrayList<>(batch.size());
+        for (Pending p : batch) {
+            Fill fill = p.fill();
+            offerArgs.add(new Object[]{fill.qty(), fill.qty(), fill.qty(), fill.offerId()});
+            tradeArgs.add(new Object[]{fill.offerId(), fill.price(), fill.qty()});
+            deltaArgs.add(new Object[]{fill.accountId(), fill.offerId(), fill.cashDelta()});
+            historyArgs.add(new Object[]{fill.offerId(), fill.accountId(), fill.stockCode(), fill.side(),
+                    fill.price(), fill.qty(), new Timestamp(p.tradedAt())});
+        }
+
+        // 앞선 배치는 모두 반영됐으므로 이 배치의 마지막 seq 까지가 연속으로 반영된 구간
+        long seq = batch.get(batch.size() - 1).seq();
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(UPDATE_OFFER_SQL, offerArgs);
+            jdbcTemplate.batchUpdate(INSERT_TRADE_SQL, tradeArgs);
+            jdbcTemplate.batchUpdate(INSERT_DELTA_SQL, deltaArgs);
+            jdbcTemplate.batchUpdate(INSERT_HISTORY_SQL, historyArgs);
+            if (seq > 0) jdbcTemplate.update(UPDATE_CHECKPOINT_SQL, seq);
+        });
+        if (seq > checkpoint) checkpoint = seq;
+    }
+
+    // 종료 시 큐에 남은 체결까지 반영
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+}
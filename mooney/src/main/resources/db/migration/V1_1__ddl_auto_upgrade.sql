@@ -0,0 +1,43 @@
+-- ddl-auto 스키마(V1) → V2 이전의 현재 스키마. 기존 DB 는 baseline(1) 뒤 여기부터 적용됨
+
+-- 금액: DOUBLE → 원 단위 정수
+ALTER TABLE account MODIFY cash_balance BIGINT NOT NULL;
+ALTER TABLE offer MODIFY offer_price BIGINT NOT NULL;
+
+-- 부분 체결 누적 수량
+ALTER TABLE offer ADD COLUMN offer_filled_cnt INT NOT NULL DEFAULT 0;
+UPDATE offer SET offer_filled_cnt = offer_cnt WHERE offer_status = 'FILLED';
+
+-- 체결 행이 주문당 여러 개가 되므로 trade.offer_id 유니크 제거.
+-- ddl-auto 가 만든 제약 이름은 해시값이라 information_schema 에서 찾아 지움 (FK 용 일반 인덱스를 먼저 만듦)
+CREATE INDEX idx_trade_offer ON trade (offer_id);
+SET @uk_trade_offer = (SELECT index_name FROM information_schema.statistics
+                       WHERE table_schema = DATABASE() AND table_name = 'trade' AND column_name = 'offer_id'
+                         AND non_unique = 0 AND index_name <> 'PRIMARY'
+                       LIMIT 1);
+SET @drop_uk = IF(@uk_trade_offer IS NULL, 'DO 0', CONCAT('ALTER TABLE trade DROP INDEX `', @uk_trade_offer, '`'));
+PREPARE drop_uk FROM @drop_uk;
+EXECUTE drop_uk;
+DEALLOCATE PREPARE drop_uk;
+
+-- 체결 행에만 채워지는 체결가/수량 (접수 시점 행은 NULL)
+ALTER TABLE trade ADD COLUMN trade_price BIGINT NULL;
+ALTER TABLE trade ADD COLUMN trade_cnt INT NULL;
+
+-- 종목코드로 캐시/조회하므로 유일해야 함
+ALTER TABLE stock ADD CONSTRAINT uk_stock_code UNIQUE (stock_code);
+
+-- Offer ID 풀링 시퀀스 (MySQL 은 시퀀스가 없어 Hibernate 가 테이블로 흉내냄)
+CREATE TABLE IF NOT EXISTS offer_seq (
+    next_val BIGINT
+);
+INSERT INTO offer_seq (next_val) SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT * FROM offer_seq);
+
+CREATE TABLE IF NOT EXISTS balance_delta (
+    delta_id   BIGINT NOT NULL AUTO_INCREMENT,
+    account_id BIGINT NOT NULL,
+    offer_id   BIGINT NOT NULL,
+    amount     BIGINT NOT NULL,
+    PRIMARY KEY (delta_id),
+    INDEX idx_balance_delta_account (account_id)
+);
@@ -0,0 +1,45 @@
+-- 원래 ddl-auto 가 만들던 스키마 그대로 (이미 테이블이 있는 DB 는 baseline 처리되어 건너뜀)
+-- 이후 변경은 V1_1 부터: 기존 DB 와 새 DB 가 같은 경로로 현재 스키마에 도달
+
+CREATE TABLE `user` (
+    user_id BIGINT NOT NULL AUTO_INCREMENT,
+    PRIMARY KEY (user_id)
+);
+
+CREATE TABLE account (
+    account_id   BIGINT NOT NULL AUTO_INCREMENT,
+    cash_balance DOUBLE NOT NULL,
+    user_id      BIGINT NOT NULL,
+    PRIMARY KEY (account_id),
+    CONSTRAINT uk_account_user UNIQUE (user_id),
+    CONSTRAINT fk_account_user FOREIGN KEY (user_id) REFERENCES `user` (user_id)
+);
+
+CREATE TABLE stock (
+    stock_id   BIGINT NOT NULL AUTO_INCREMENT,
+    stock_code VARCHAR(255),
+    stock_name VARCHAR(255),
+    PRIMARY KEY (stock_id)
+);
+
+CREATE TABLE offer (
+    offer_id     BIGINT NOT NULL AUTO_INCREMENT,
+    offer_price  DOUBLE NOT NULL,
+    offer_cnt    INT    NOT NULL,
+    offer_side   VARCHAR(255),
+    offer_status VARCHAR(255),
+    account_id   BIGINT NOT NULL,
+    stock_id     BIGINT NOT NULL,
+    PRIMARY KEY (offer_id),
+    CONSTRAINT fk_offer_account FOREIGN KEY (account_id) REFERENCES account (account_id),
+    CONSTRAINT fk_offer_stock FOREIGN KEY (stock_id) REFERENCES stock (stock_id)
+);
+
+-- @OneToOne(unique = true) 였던 시절: 주문당 체결 한 행
+CREATE TABLE trade (
+    trade_id BIGINT NOT NULL AUTO_INCREMENT,
+    offer_id BIGINT NOT NULL,
+    PRIMARY KEY (trade_id),
+    CONSTRAINT uk_trade_offer UNIQUE (offer_id),
+    CONSTRAINT fk_trade_offer FOREIGN KEY (offer_id) REFERENCES offer (offer_id)
+);
@@ -0,0 +1,36 @@
+-- 주문 상태를 문자열 → SMALLINT (0=PENDING, 1=FILLED, 2=CANCELED)
+ALTER TABLE offer ADD COLUMN offer_status_code SMALLINT NOT NULL DEFAULT 0;
+UPDATE offer SET offer_status_code = CASE offer_status WHEN 'FILLED' THEN 1 WHEN 'CANCELED' THEN 2 ELSE 0 END;
+ALTER TABLE offer DROP COLUMN offer_status;
+ALTER TABLE offer RENAME COLUMN offer_status_code TO offer_status;
+
+-- 종료(체결 완료/취소) 시각: 보관 이동 대상 판단용
+ALTER TABLE offer ADD COLUMN offer_closed_at DATETIME(6) NULL;
+
+-- 종목별 미체결 조회 / 상태별 접수순 조회 (호가창 적재, 보관 이동)
+CREATE INDEX idx_offer_stock_status_price ON offer (stock_id, offer_status, offer_price);
+CREATE INDEX idx_offer_status_id ON offer (offer_status, offer_id);
+
+-- 종료된 주문/체결 보관 테이블 (FK 없음)
+CREATE TABLE offer_archive (
+    offer_id         BIGINT   NOT NULL,
+    offer_price      BIGINT   NOT NULL,
+    offer_cnt        INT      NOT NULL,
+    offer_filled_cnt INT      NOT NULL,
+    offer_side       VARCHAR(255),
+    offer_status     SMALLINT NOT NULL,
+    account_id       BIGINT   NOT NULL,
+    stock_id         BIGINT   NOT NULL,
+    offer_closed_at  DATETIME(6),
+    PRIMARY KEY (offer_id),
+    INDEX idx_offer_archive_account (account_id)
+);
+
+CREATE TABLE trade_archive (
+    trade_id    BIGINT NOT NULL,
+    offer_id    BIGINT NOT NULL,
+    trade_price BIGINT,
+    trade_cnt   INT,
+    PRIMARY KEY (trade_id),
+    INDEX idx_trade_archive_offer (offer_id)
+);
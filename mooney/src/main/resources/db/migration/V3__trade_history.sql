@@ -0,0 +1,15 @@
+-- 조회용 체결 이력 (체결 이벤트에서 바로 채우는 비정규화 테이블, 조인 없이 계좌/종목별 조회)
+CREATE TABLE trade_history (
+    history_id  BIGINT      NOT NULL AUTO_INCREMENT,
+    offer_id    BIGINT      NOT NULL,
+    account_id  BIGINT      NOT NULL,
+    stock_code  VARCHAR(16) NOT NULL,
+    offer_side  VARCHAR(8)  NOT NULL,
+    trade_price BIGINT      NOT NULL,
+    trade_cnt   INT         NOT NULL,
+    traded_at   DATETIME(6) NOT NULL,
+    PRIMARY KEY (history_id),
+    INDEX idx_trade_history_account (account_id, history_id),
+    INDEX idx_trade_history_stock (stock_code, history_id),
+    INDEX idx_trade_history_account_time (account_id, traded_at)
+);
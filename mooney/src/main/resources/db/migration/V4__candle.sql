@@ -0,0 +1,12 @@
+-- 마감된 OHLCV 봉 (candles.persist=true 일 때만 적재)
+CREATE TABLE candle (
+    stock_code   VARCHAR(16) NOT NULL,
+    interval_sec INT         NOT NULL,
+    bar_start    DATETIME    NOT NULL,
+    open_price   BIGINT      NOT NULL,
+    high_price   BIGINT      NOT NULL,
+    low_price    BIGINT      NOT NULL,
+    close_price  BIGINT      NOT NULL,
+    volume       BIGINT      NOT NULL,
+    PRIMARY KEY (stock_code, interval_sec, bar_start)
+);
@@ -0,0 +1,7 @@
+-- 주문 이벤트 저널 중 DB(offer/trade/...)에 반영된 마지막 seq. 재기동 시 이 뒤의 체결만 다시 반영
+CREATE TABLE order_journal_checkpoint (
+    id       TINYINT NOT NULL PRIMARY KEY,
+    last_seq BIGINT  NOT NULL
+);
+
+INSERT INTO order_journal_checkpoint (id, last_seq) VALUES (1, 0);
@@ -0,0 +1,5 @@
+-- 접수 응답으로 돌려준 주문번호 (멱등 키에서 파생). 주문번호로 offer_id/상태 조회
+ALTER TABLE offer ADD COLUMN order_id VARCHAR(36) NULL;
+CREATE INDEX idx_offer_order_id ON offer (order_id);
+
+ALTER TABLE offer_archive ADD COLUMN order_id VARCHAR(36) NULL;
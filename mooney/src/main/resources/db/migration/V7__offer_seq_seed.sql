@@ -0,0 +1,6 @@
+-- offer_seq 를 기존 offer_id(보관 테이블 포함) 위로 올림.
+-- pooled 할당(50)은 읽은 값 v 에 대해 v-49..v 를 쓰므로 v-49 > MAX(offer_id) 가 되도록 50 단위로 올림
+UPDATE offer_seq
+SET next_val = GREATEST(next_val,
+        CEIL((GREATEST((SELECT COALESCE(MAX(offer_id), 0) FROM offer),
+                       (SELECT COALESCE(MAX(offer_id), 0) FROM offer_archive)) + 50) / 50) * 50);
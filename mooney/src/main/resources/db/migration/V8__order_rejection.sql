@@ -0,0 +1,10 @@
+-- 컨슈머에서 거절된 주문 (offer 행이 없음). 주문번호 조회가 404 대신 REJECTED 를 돌려주도록 기록
+CREATE TABLE order_rejection (
+    order_id    VARCHAR(36) NOT NULL,
+    reason      VARCHAR(32) NOT NULL,
+    rejected_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (order_id)
+);
+
+-- 보관 이동된 주문도 주문번호로 조회
+CREATE INDEX idx_offer_archive_order_id ON offer_archive (order_id);
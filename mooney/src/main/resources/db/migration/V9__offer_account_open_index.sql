@@ -0,0 +1,2 @@
+-- 계좌의 미체결 매수 예약 합계를 접수 배치마다 읽으므로 (여러 인스턴스 사이의 주문 가능 금액 확인)
+CREATE INDEX idx_offer_account_open ON offer (account_id, offer_status, offer_side);
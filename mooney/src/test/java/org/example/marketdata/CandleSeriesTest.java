@@ -0,0 +1,74 @@
+package org.example.marketdata;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CandleSeriesTest {
+
+    private final CandleSeries series = new CandleSeries(60, 3);
+
+    @Test
+    void aggregatesTicksWithinInterval() {
+        assertNull(series.onTick(120, 100, 1));
+        assertNull(series.onTick(130, 105, 2));
+        assertNull(series.onTick(150, 95, 3));
+        assertNull(series.onTick(179, 101, 4));
+
+        assertEquals(List.of(new CandleSeries.Bar(120, 100, 105, 95, 101, 10)), series.recent(10));
+    }
+
+    @Test
+    void newIntervalReturnsClosedBar() {
+        series.onTick(120, 100, 1);
+        series.onTick(150, 110, 1);
+
+        CandleSeries.Bar closed = series.onTick(180, 90, 5);
+
+        assertEquals(new CandleSeries.Bar(120, 100, 110, 100, 110, 2), closed);
+        assertEquals(new CandleSeries.Bar(180, 90, 90, 90, 90, 5), series.recent(1).get(0));
+    }
+
+    @Test
+    void lateTickMergesIntoCurrentBar() {
+        series.onTick(180, 100, 1);
+
+        assertNull(series.onTick(170, 120, 2));
+
+        assertEquals(List.of(new CandleSeries.Bar(180, 100, 120, 100, 120, 3)), series.recent(10));
+    }
+
+    @Test
+    void ringOverwritesOldestBars() {
+        for (long t = 0; t < 5 * 60; t += 60) {
+            series.onTick(t, 100 + t, 1);
+        }
+
+        List<CandleSeries.Bar> bars = series.recent(10);
+        assertEquals(List.of(120L, 180L, 240L), bars.stream().map(CandleSeries.Bar::start).toList());
+        assertEquals(List.of(180L, 240L), series.recent(2).stream().map(CandleSeries.Bar::start).toList());
+    }
+
+    @Test
+    void drainDirtyReturnsCurrentBarOnce() {
+        assertNull(series.drainDirty());
+        series.onTick(60, 100, 1);
+
+        assertEquals(new CandleSeries.Bar(60, 100, 100, 100, 100, 1), series.drainDirty());
+        assertNull(series.drainDirty());
+        assertTrue(series.recent(0).isEmpty());
+    }
+
+    @Test
+    void nonPositiveLimitReturnsEmpty() {
+        series.onTick(60, 100, 1);
+
+        assertTrue(series.recent(0).isEmpty());
+        assertTrue(series.recent(-1).isEmpty());
+        assertTrue(series.recent(Integer.MIN_VALUE).isEmpty());
+    }
+}
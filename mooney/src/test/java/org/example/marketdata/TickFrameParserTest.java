@@ -0,0 +1,92 @@
+package org.example.marketdata;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TickFrameParserTest {
+
+    private record Tick(String code, int time, int price, long volume) {}
+
+    private final TickFrameParser parser = new TickFrameParser();
+    private final List<Tick> ticks = new ArrayList<>();
+    private final TickFrameParser.TickSink sink = (code, time, price, volume) -> ticks.add(new Tick(code, time, price, volume));
+
+    // 46 개 필드 중 종목코드/시각/체결가/체결량만 채운 레코드
+    private static String record(String code, String time, String price, String volume) {
+        String[] f = new String[TickFrameParser.FIELDS_PER_RECORD];
+        Arrays.fill(f, "0");
+        f[0] = code;
+        f[1] = time;
+        f[2] = price;
+        f[12] = volume;
+        return String.join("^", f);
+    }
+
+    @Test
+    void parsesSingleRecord() {
+        String frame = "0|H0STCNT0|001|" + record("005930", "090001", "70100", "15");
+
+        assertEquals(1, parser.parseFrame(frame, sink));
+        assertEquals(List.of(new Tick("005930", 90001, 70100, 15)), ticks);
+    }
+
+    @Test
+    void parsesConcatenatedRecords() {
+        String frame = "0|H0STCNT0|002|" + record("005930", "090001", "70100", "15") + "^"
+                + record("000660", "090002", "120500", "3");
+
+        assertEquals(2, parser.parseFrame(frame, sink));
+        assertEquals(List.of(new Tick("005930", 90001, 70100, 15), new Tick("000660", 90002, 120500, 3)), ticks);
+    }
+
+    @Test
+    void countZeroParsesEverything() {
+        String frame = "0|h0stcnt0|0|" + record(" 005930 ", "090001", "70100", "15") + "|"
+                + record("000660", "090002", "120500", "3");
+
+        assertEquals(2, parser.parseFrame(frame, sink));
+        assertEquals("005930", ticks.get(0).code());
+    }
+
+    @Test
+    void skipsRecordsWithoutPrice() {
+        String frame = "0|H0STCNT0|002|" + record("005930", "090001", "0", "15") + "^"
+                + record("000660", "090002", "abc", "3");
+
+        assertEquals(0, parser.parseFrame(frame, sink));
+        assertTrue(ticks.isEmpty());
+    }
+
+    @Test
+    void otherChannelsAndBrokenFrames() {
+        assertEquals(0, parser.parseFrame("0|H0STASP0|001|005930^1", sink));
+        assertEquals(-1, parser.parseFrame("0|H0STCNT0", sink));
+        assertEquals(-1, parser.parseFrame("{\"header\":{}}", sink));
+        assertTrue(ticks.isEmpty());
+    }
+
+    @Test
+    void reusesInternedStockCode() {
+        parser.parseFrame(new StringBuilder("0|H0STCNT0|001|" + record("005930", "090001", "70100", "15")), sink);
+        parser.parseFrame(new StringBuilder("0|H0STCNT0|001|" + record("005930", "090002", "70200", "5")), sink);
+
+        assertSame(ticks.get(0).code(), ticks.get(1).code());
+    }
+
+    @Test
+    void parseIntMatchesSafeParse() {
+        assertEquals(123, TickFrameParser.parseInt(" 123 ", 0, 5));
+        assertEquals(-45, TickFrameParser.parseInt("-45", 0, 3));
+        assertEquals(0, TickFrameParser.parseInt("12a", 0, 3));
+        assertEquals(0, TickFrameParser.parseInt("+", 0, 1));
+        assertEquals(0, TickFrameParser.parseInt("2147483648", 0, 10));
+        assertEquals(Integer.MIN_VALUE, TickFrameParser.parseInt("-2147483648", 0, 11));
+    }
+}
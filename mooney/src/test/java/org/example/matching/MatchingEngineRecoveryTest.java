@@ -0,0 +1,104 @@
+package org.example.matching;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.entity.OfferStatus;
+import org.example.repository.OfferRepository;
+import org.example.service.AccountLedger;
+import org.example.service.TradeJournal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 저널만 남은 상태에서 재기동: 호가창 복구, 체크포인트 뒤 체결 재반영, 취소 재확인, 이어 쓰는 seq.
+ */
+class MatchingEngineRecoveryTest {
+
+    private static final String CODE = "005930";
+    // 매수 1번 5주 중 2주 체결 (seq 2)
+    private static final Fill FIRST_FILL = new Fill(CODE, 1, 10, "BUY", 69_500, 2, 70_000, 3);
+
+    @TempDir
+    Path dir;
+
+    private final OfferRepository offerRepository = mock(OfferRepository.class);
+    private final TradeJournal tradeJournal = mock(TradeJournal.class);
+    private final AccountLedger accountLedger = mock(AccountLedger.class);
+    private MatchingEngine engine;
+
+    @BeforeEach
+    void writeJournal() throws Exception {
+        OrderEventLog log = OrderEventLogTest.open(mock(TradeJournal.class), dir, 1);
+        log.accepted(0, CODE, 1, 10, "BUY", 70_000, 5);
+        log.filled(0, FIRST_FILL, 1000);
+        log.accepted(0, CODE, 2, 11, "SELL", 69_000, 3);
+        log.canceled(0, CODE, 2, 11, "SELL", 69_000, 3).join();
+        log.stop();
+    }
+
+    @Test
+    void restoresBookAndCatchesUpFillsAfterCheckpoint() throws Exception {
+        when(tradeJournal.checkpoint()).thenReturn(0L);
+        OrderEventLog eventLog = restart();
+
+        verify(tradeJournal).append(FIRST_FILL, 2L, 1000L);
+        verify(accountLedger).commit(FIRST_FILL);
+        verify(offerRepository).closeOffer(2L, OfferStatus.PENDING, OfferStatus.CANCELED);
+
+        List<OrderEvent> after = matchAndCollect(eventLog);
+
+        // 취소된 매도 2번은 호가창에 없고, 매수 1번은 남은 3주만 체결. 새 이벤트는 저널 끝(seq 4) 다음부터
+        assertEquals(1, after.size());
+        assertEquals(new Fill(CODE, 1, 10, "BUY", 70_000, 3, 70_000, 0), after.get(0).toFill());
+    }
+
+    @Test
+    void skipsFillsUpToCheckpointButRechecksCancels() throws Exception {
+        when(tradeJournal.checkpoint()).thenReturn(2L);
+        OrderEventLog eventLog = restart();
+
+        verify(tradeJournal, never()).append(FIRST_FILL, 2L, 1000L);
+        verify(accountLedger, never()).commit(FIRST_FILL);
+        verify(offerRepository).closeOffer(2L, OfferStatus.PENDING, OfferStatus.CANCELED);
+
+        assertEquals(1, matchAndCollect(eventLog).size());
+    }
+
+    private OrderEventLog restart() throws Exception {
+        // 엔진이 저널을 재생한 뒤 이어 쓸 seq 로 start
+        OrderEventLog eventLog = OrderEventLogTest.configured(tradeJournal, dir);
+        engine = new MatchingEngine(offerRepository, tradeJournal, accountLedger, eventLog, List.of(),
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(engine, "shardCount", 2);
+        ReflectionTestUtils.setField(engine, "fillLogSample", 100L);
+        engine.init();
+        engine.loadPending(code -> true);
+        return eventLog;
+    }
+
+    // 두 주문을 모두 건드릴 틱 하나를 넣고, 샤드/저널을 멈춘 뒤 seq 4 이후 이벤트를 읽음
+    private List<OrderEvent> matchAndCollect(OrderEventLog eventLog) throws Exception {
+        engine.onTick(CODE, 70_000, 10, System.nanoTime());
+        engine.shutdown();
+        eventLog.stop();
+
+        List<OrderEvent> after = new ArrayList<>();
+        OrderEventLog.read(dir, (seq, e) -> {
+            if (seq <= 4) return;
+            assertEquals(5 + after.size(), seq);
+            after.add(e);
+        });
+        return after;
+    }
+}
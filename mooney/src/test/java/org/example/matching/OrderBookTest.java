@@ -0,0 +1,103 @@
+package org.example.matching;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderBookTest {
+
+    private final OrderBook book = new OrderBook("005930");
+
+    @Test
+    void fillsOnlyCrossedLimitsAtTickPrice() {
+        book.add(1, 10, "BUY", 70_000, 5);
+        book.add(2, 11, "BUY", 69_900, 5);   // 체결가보다 낮은 매수
+        book.add(3, 12, "SELL", 69_800, 5);
+        book.add(4, 13, "SELL", 70_100, 5);  // 체결가보다 높은 매도
+
+        List<Fill> fills = book.match(69_950, 100);
+
+        assertEquals(2, fills.size());
+        assertFill(fills.get(0), 1, "BUY", 69_950, 5, 70_000, 0);
+        assertFill(fills.get(1), 3, "SELL", 69_950, 5, 69_800, 0);
+        assertEquals(2, book.size());
+    }
+
+    @Test
+    void noCrossingLeavesBookUntouched() {
+        book.add(1, 10, "BUY", 69_000, 5);
+        book.add(2, 11, "SELL", 71_000, 5);
+
+        assertTrue(book.match(70_000, 100).isEmpty());
+        assertTrue(book.match(69_000, 0).isEmpty());
+        assertEquals(2, book.size());
+    }
+
+    @Test
+    void capsEachSideByTickVolumeAndKeepsRemainder() {
+        book.add(1, 10, "BUY", 70_000, 3);
+        book.add(2, 11, "BUY", 70_000, 4);
+        book.add(3, 12, "SELL", 69_000, 6);
+
+        List<Fill> fills = book.match(70_000, 5);
+
+        // 매수: 1번 3주 다 채우고 2번은 2주만 (접수 순서), 매도: 3번 5주만
+        assertEquals(3, fills.size());
+        assertFill(fills.get(0), 1, "BUY", 70_000, 3, 70_000, 0);
+        assertFill(fills.get(1), 2, "BUY", 70_000, 2, 70_000, 2);
+        assertFill(fills.get(2), 3, "SELL", 70_000, 5, 69_000, 1);
+        assertEquals(2, book.size());
+
+        List<long[]> resting = resting();
+        assertEquals(2, resting.size());
+        assertEquals(List.of(2L, 2L), List.of(resting.get(0)[0], resting.get(0)[1]));
+        assertEquals(List.of(3L, 1L), List.of(resting.get(1)[0], resting.get(1)[1]));
+    }
+
+    @Test
+    void walksLevelsFromBestPrice() {
+        book.add(1, 10, "BUY", 70_000, 2);
+        book.add(2, 11, "BUY", 70_200, 2);
+        book.add(3, 12, "BUY", 70_100, 2);
+
+        List<Fill> fills = book.match(70_000, 5);
+
+        assertEquals(List.of(2L, 3L, 1L), fills.stream().map(Fill::offerId).toList());
+        assertEquals(1, fills.get(2).qty());
+        assertEquals(1, book.size());
+    }
+
+    @Test
+    void removeAndReduceDropEmptyLevels() {
+        book.add(1, 10, "BUY", 70_000, 5);
+        book.add(2, 11, "SELL", 71_000, 5);
+
+        assertEquals(5, book.remove(1, "BUY", 70_000));
+        assertEquals(0, book.remove(1, "BUY", 70_000));
+        book.reduce(2, "SELL", 71_000, 3);
+        assertEquals(1, book.size());
+        book.reduce(2, "SELL", 71_000, 2);
+
+        assertTrue(book.isEmpty());
+        assertEquals(0, book.size());
+    }
+
+    private List<long[]> resting() {
+        List<long[]> out = new ArrayList<>();
+        book.forEach((offerId, accountId, side, price, qty) -> out.add(new long[]{offerId, qty}));
+        return out;
+    }
+
+    private static void assertFill(Fill fill, long offerId, String side, long price, int qty, long limit, int remaining) {
+        assertEquals(offerId, fill.offerId());
+        assertEquals(side, fill.side());
+        assertEquals(price, fill.price());
+        assertEquals(qty, fill.qty());
+        assertEquals(limit, fill.limitPrice());
+        assertEquals(remaining, fill.remainingQty());
+    }
+}
@@ -0,0 +1,187 @@
+package org.example.matching;
+
+import org.example.service.TradeJournal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class OrderEventLogTest {
+
+    private static final Fill FILL = new Fill("005930", 1, 10, "BUY", 69_900, 2, 70_000, 3);
+
+    @TempDir
+    Path dir;
+
+    private TradeJournal tradeJournal;
+    private OrderEventLog log;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        tradeJournal = mock(TradeJournal.class);
+        log = open(tradeJournal, dir, 1);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        log.stop();
+    }
+
+    // 저널을 켠 설정만 채운 인스턴스 (start 전)
+    static OrderEventLog configured(TradeJournal tradeJournal, Path dir) {
+        OrderEventLog log = new OrderEventLog(tradeJournal);
+        ReflectionTestUtils.setField(log, "enabled", true);
+        ReflectionTestUtils.setField(log, "dir", dir.toString());
+        ReflectionTestUtils.setField(log, "segmentMb", 64);
+        ReflectionTestUtils.setField(log, "queueCapacity", 1024);
+        ReflectionTestUtils.setField(log, "groupCommitMax", 16);
+        return log;
+    }
+
+    static OrderEventLog open(TradeJournal tradeJournal, Path dir, long nextSeq) throws Exception {
+        OrderEventLog log = configured(tradeJournal, dir);
+        log.start(nextSeq);
+        return log;
+    }
+
+    @Test
+    void roundTripsEventsInSeqOrderAndHandsOffFills() throws Exception {
+        log.accepted(0, "005930", 1, 10, "BUY", 70_000, 5);
+        log.filled(0, FILL, 1234);
+        long cancelSeq = log.canceled(1, "000660", 7, 11, "SELL", 120_000, 4).join();
+        log.awaitCommitted();
+        log.stop();
+
+        assertEquals(3, cancelSeq);
+        verify(tradeJournal).append(FILL, 2L, 1234L);
+
+        List<OrderEvent> events = new ArrayList<>();
+        List<Long> seqs = new ArrayList<>();
+        long last = OrderEventLog.read(dir, (seq, e) -> {
+            seqs.add(seq);
+            events.add(e);
+        });
+
+        assertEquals(3, last);
+        assertEquals(List.of(1L, 2L, 3L), seqs);
+        OrderEvent accepted = events.get(0);
+        assertEquals(OrderEvent.ACCEPTED, accepted.type());
+        assertEquals("005930", accepted.stockCode());
+        assertEquals(70_000, accepted.price());
+        assertEquals(5, accepted.qty());
+        OrderEvent filled = events.get(1);
+        assertEquals(OrderEvent.PARTIAL, filled.type());
+        assertEquals(FILL, filled.toFill());
+        assertEquals(1234, filled.eventAt());
+        OrderEvent canceled = events.get(2);
+        assertEquals(OrderEvent.CANCELED, canceled.type());
+        assertEquals(1, canceled.shard());
+        assertEquals("SELL", canceled.side());
+        assertEquals(4, canceled.qty());
+    }
+
+    @Test
+    void stopsAtTruncatedTail() throws Exception {
+        log.accepted(0, "005930", 1, 10, "BUY", 70_000, 5);
+        log.accepted(0, "005930", 2, 10, "BUY", 70_000, 5);
+        log.awaitCommitted();
+        log.stop();
+
+        Path segment = onlySegment();
+        try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            ch.truncate(ch.size() - 3);
+        }
+
+        List<Long> offerIds = new ArrayList<>();
+        assertEquals(1, OrderEventLog.read(dir, (seq, e) -> offerIds.add(e.offerId())));
+        assertEquals(List.of(1L), offerIds);
+    }
+
+    @Test
+    void stopsAtChecksumMismatch() throws Exception {
+        log.accepted(0, "005930", 1, 10, "BUY", 70_000, 5);
+        log.accepted(0, "005930", 2, 10, "BUY", 70_000, 5);
+        log.accepted(0, "005930", 3, 10, "BUY", 70_000, 5);
+        log.awaitCommitted();
+        log.stop();
+
+        // 두 번째 레코드 본문의 마지막 바이트를 바꿈
+        Path segment = onlySegment();
+        byte[] bytes = Files.readAllBytes(segment);
+        int second = 8 + ByteBuffer.wrap(bytes).getInt(0);
+        int secondEnd = second + 8 + ByteBuffer.wrap(bytes).getInt(second);
+        bytes[secondEnd - 1] ^= 0x5A;
+        Files.write(segment, bytes);
+
+        List<Long> offerIds = new ArrayList<>();
+        assertEquals(1, OrderEventLog.read(dir, (seq, e) -> offerIds.add(e.offerId())));
+        assertEquals(List.of(1L), offerIds);
+    }
+
+    @Test
+    void readsRecordsWrittenBeforeEventTimeField() throws Exception {
+        log.stop();
+        // 시각 필드가 없던 형식의 체결 레코드
+        ByteBuffer body = ByteBuffer.allocate(128);
+        body.putLong(9).put(OrderEvent.FILLED).putShort((short) 0);
+        byte[] code = "005930".getBytes(StandardCharsets.US_ASCII);
+        body.put((byte) code.length).put(code);
+        body.putLong(1).putLong(10).put((byte) 0).putLong(69_900).putInt(5).putLong(70_000).putInt(0);
+        body.flip();
+        CRC32 crc = new CRC32();
+        crc.update(body.duplicate());
+        ByteBuffer record = ByteBuffer.allocate(8 + body.remaining());
+        record.putInt(body.remaining()).putInt((int) crc.getValue()).put(body);
+        Path legacy = dir.resolve(String.format("orders-%020d%s", 0, OrderEventLog.SUFFIX));
+        Files.write(legacy, record.array());
+
+        List<OrderEvent> events = new ArrayList<>();
+        assertEquals(9, OrderEventLog.read(dir, (seq, e) -> events.add(e)));
+        assertEquals(1, events.size());
+        assertEquals(0, events.get(0).eventAt());
+        assertEquals(new Fill("005930", 1, 10, "BUY", 69_900, 5, 70_000, 0), events.get(0).toFill());
+    }
+
+    @Test
+    void restartContinuesInNewSegment() throws Exception {
+        log.accepted(0, "005930", 1, 10, "BUY", 70_000, 5);
+        log.awaitCommitted();
+        log.stop();
+
+        log = open(tradeJournal, dir, OrderEventLog.read(dir, (seq, e) -> { }) + 1);
+        log.accepted(0, "005930", 2, 10, "BUY", 70_000, 5);
+        log.awaitCommitted();
+        log.stop();
+
+        List<Long> seqs = new ArrayList<>();
+        OrderEventLog.read(dir, (seq, e) -> seqs.add(seq));
+        assertEquals(List.of(1L, 2L), seqs);
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    private Path onlySegment() throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            List<Path> segments = files.filter(p -> p.getFileName().toString().endsWith(OrderEventLog.SUFFIX)).toList();
+            assertEquals(1, segments.size());
+            return segments.get(0);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.matching;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class OrderSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripsMarksAndBooks() throws Exception {
+        List<OrderSnapshot.Resting> orders = List.of(
+                new OrderSnapshot.Resting(1, 10, "BUY", 70_000, 5),
+                new OrderSnapshot.Resting(2, 11, "SELL", 71_000, 3));
+        new OrderSnapshot(Map.of(0, 7L, 1, 4L), Map.of("005930", orders)).write(dir);
+
+        OrderSnapshot read = OrderSnapshot.readLatest(dir);
+
+        assertEquals(Map.of(0, 7L, 1, 4L), read.marks);
+        assertEquals(Map.of("005930", orders), read.books);
+        assertEquals(4, read.lowestMark());
+        assertEquals(0, read.mark(2));
+    }
+
+    @Test
+    void fallsBackToPreviousWhenLatestIsCorrupt() throws Exception {
+        new OrderSnapshot(Map.of(0, 5L), Map.of()).write(dir);
+        new OrderSnapshot(Map.of(0, 9L), Map.of()).write(dir);
+
+        Path latest = dir.resolve(String.format("snapshot-%020d.snap", 9));
+        byte[] bytes = Files.readAllBytes(latest);
+        bytes[bytes.length - 1] ^= 0x5A;
+        Files.write(latest, bytes);
+
+        assertEquals(5, OrderSnapshot.readLatest(dir).mark(0));
+    }
+
+    @Test
+    void pruneKeepsMostRecent() throws Exception {
+        for (long mark = 1; mark <= 4; mark++) {
+            new OrderSnapshot(Map.of(0, mark), Map.of()).write(dir);
+        }
+
+        OrderSnapshot.prune(dir, 2);
+
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(2, files.count());
+        }
+        assertEquals(4, OrderSnapshot.readLatest(dir).mark(0));
+    }
+
+    @Test
+    void missingDirectoryHasNoSnapshot() throws Exception {
+        assertNull(OrderSnapshot.readLatest(dir.resolve("none")));
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.matching;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PriceLevelsTest {
+
+    private final PriceLevels<String> levels = new PriceLevels<>();
+
+    @Test
+    void keepsPricesAscendingPastInitialCapacity() {
+        for (int i = 40; i > 0; i--) {
+            levels.put(i * 100L, "L" + i);
+        }
+
+        assertEquals(40, levels.size());
+        for (int i = 0; i < 40; i++) {
+            assertEquals((i + 1) * 100L, levels.priceAt(i));
+            assertEquals("L" + (i + 1), levels.levelAt(i));
+        }
+    }
+
+    @Test
+    void putReplacesExistingLevel() {
+        levels.put(100, "a");
+        levels.put(100, "b");
+
+        assertEquals(1, levels.size());
+        assertEquals("b", levels.get(100));
+    }
+
+    @Test
+    void removeShiftsRemainingLevels() {
+        levels.put(300, "c");
+        levels.put(100, "a");
+        levels.put(200, "b");
+
+        assertEquals("b", levels.remove(200));
+        assertNull(levels.remove(200));
+        assertNull(levels.get(200));
+        assertEquals(2, levels.size());
+        assertEquals(300, levels.priceAt(1));
+
+        levels.removeAt(0);
+        assertEquals(300, levels.priceAt(0));
+        levels.clear();
+        assertTrue(levels.isEmpty());
+        assertNull(levels.get(300));
+    }
+}
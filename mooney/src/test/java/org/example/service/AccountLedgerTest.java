@@ -0,0 +1,123 @@
+package org.example.service;
+
+import org.example.matching.Fill;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AccountLedgerTest {
+
+    private static final long ACCOUNT = 1L;
+    private static final long CASH = 1_000_000L;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final AccountLedger ledger = new AccountLedger(jdbcTemplate, mock(TransactionTemplate.class));
+
+    // 처음 보는 계좌는 DB 잔고로 적재됨
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(jdbcTemplate.query(anyString(), any(ResultSetExtractor.class), eq(ACCOUNT))).thenReturn(CASH);
+    }
+
+    private static Fill fill(String side, long price, int qty, long limitPrice) {
+        return new Fill("005930", 10L, ACCOUNT, side, price, qty, limitPrice, 0);
+    }
+
+    @Test
+    void reserveHoldsCashUntilReleased() {
+        assertTrue(ledger.reserve(ACCOUNT, 300_000));
+        assertEquals(CASH - 300_000, ledger.availableOf(ACCOUNT));
+        assertEquals(CASH, ledger.balanceOf(ACCOUNT));
+
+        ledger.release(ACCOUNT, 300_000);
+        assertEquals(CASH, ledger.availableOf(ACCOUNT));
+    }
+
+    @Test
+    void reserveFailsWhenAvailableIsShort() {
+        assertFalse(ledger.reserve(ACCOUNT, CASH + 1));
+        assertEquals(CASH, ledger.availableOf(ACCOUNT));
+
+        assertTrue(ledger.reserve(ACCOUNT, CASH));
+        assertFalse(ledger.reserve(ACCOUNT, 1));
+        assertEquals(0, ledger.availableOf(ACCOUNT));
+    }
+
+    @Test
+    void buyFillTakesBalanceAndReturnsPriceImprovement() {
+        assertTrue(ledger.reserve(ACCOUNT, 100 * 10));
+
+        ledger.commit(fill("BUY", 95, 10, 100));
+
+        assertEquals(CASH - 950, ledger.balanceOf(ACCOUNT));
+        assertEquals(CASH - 1000 + 50, ledger.availableOf(ACCOUNT));
+    }
+
+    @Test
+    void sellFillCreditsBalanceAndAvailable() {
+        ledger.commit(fill("SELL", 120, 5, 110));
+
+        assertEquals(CASH + 600, ledger.balanceOf(ACCOUNT));
+        assertEquals(CASH + 600, ledger.availableOf(ACCOUNT));
+    }
+
+    @Test
+    void rejectsNonPositiveAmounts() {
+        assertThrows(IllegalArgumentException.class, () -> ledger.reserve(ACCOUNT, 0));
+        assertThrows(IllegalArgumentException.class, () -> ledger.reserve(ACCOUNT, -1_000));
+        assertThrows(IllegalArgumentException.class, () -> ledger.release(ACCOUNT, 0));
+        assertThrows(IllegalArgumentException.class, () -> ledger.release(ACCOUNT, -1_000));
+
+        assertEquals(CASH, ledger.availableOf(ACCOUNT));
+    }
+
+    @Test
+    void concurrentReservesNeverOvercommit() throws Exception {
+        int threads = 8;
+        int attemptsPerThread = 500;
+        long amount = 1_000; // 전체 시도 4000건 중 1000건만 들어갈 수 있음
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    int ok = 0;
+                    for (int i = 0; i < attemptsPerThread; i++) {
+                        if (ledger.reserve(ACCOUNT, amount)) ok++;
+                    }
+                    return ok;
+                }));
+            }
+            start.countDown();
+
+            int reserved = 0;
+            for (Future<Integer> r : results) reserved += r.get();
+            assertEquals(CASH / amount, reserved);
+            assertEquals(0, ledger.availableOf(ACCOUNT));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyCacheTest {
+
+    private static IdempotencyCache cache(long windowMinutes, int maxEntries) {
+        IdempotencyCache cache = new IdempotencyCache();
+        ReflectionTestUtils.setField(cache, "windowMinutes", windowMinutes);
+        ReflectionTestUtils.setField(cache, "maxEntries", maxEntries);
+        return cache;
+    }
+
+    @Test
+    void remembersRecordedOrderIds() {
+        IdempotencyCache cache = cache(10, 100);
+        cache.record(List.of("a", "b"));
+        cache.record(List.of("b"));
+
+        assertTrue(cache.contains("a"));
+        assertTrue(cache.contains("b"));
+        assertFalse(cache.contains("c"));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void evictsOldestBeyondMaxEntries() {
+        IdempotencyCache cache = cache(10, 2);
+        cache.record(List.of("a", "b", "c"));
+
+        assertFalse(cache.contains("a"));
+        assertTrue(cache.contains("b"));
+        assertTrue(cache.contains("c"));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void expiresOutsideWindow() throws Exception {
+        IdempotencyCache cache = cache(0, 100);
+        cache.record(List.of("a"));
+        Thread.sleep(2);
+
+        assertFalse(cache.contains("a"));
+        assertEquals(0, cache.size());
+    }
+}
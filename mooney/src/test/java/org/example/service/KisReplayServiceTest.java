@@ -0,0 +1,102 @@
+package org.example.service;
+
+import org.example.marketdata.FrameJournalWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class KisReplayServiceTest {
+
+    private static final long MS = 1_000_000L;
+
+    @TempDir
+    Path dir;
+
+    @TempDir
+    Path runs;
+
+    // park 한 만큼 시간이 흐르는 가짜 시계
+    static class FakeClock implements KisReplayService.ReplayClock {
+        long now = 42;
+
+        @Override
+        public long nanoTime() {
+            return now;
+        }
+
+        @Override
+        public void parkNanos(long nanos) {
+            now += nanos;
+        }
+    }
+
+    @Test
+    void pacesOnRecordedEpochMillisAcrossRuns() throws Exception {
+        // 두 번째 실행은 재기동 뒤라 nanoTime 기준점이 첫 실행보다 훨씬 작음
+        writeRun("frames-20260105-090000-0000.seg", new long[][]{{1_000_000, 9_000_000 * MS}, {1_000_100, 9_000_100 * MS}}, "a", "b");
+        writeRun("frames-20260105-090500-0000.seg", new long[][]{{1_000_300, 5 * MS}}, "c");
+
+        Replayed replayed = replay(1);
+
+        assertEquals(List.of("a", "b", "c"), replayed.messages);
+        assertEquals(List.of(0L, 100 * MS, 300 * MS), replayed.offsets);
+        assertEquals(300, replayed.result.recordedMillis());
+        assertEquals(3, replayed.result.frames());
+    }
+
+    @Test
+    void speedScalesTheSchedule() throws Exception {
+        writeRun("frames-20260105-090000-0000.seg", new long[][]{{1_000, 0}, {1_100, 100 * MS}, {1_300, 300 * MS}}, "a", "b", "c");
+
+        assertEquals(List.of(0L, 50 * MS, 150 * MS), replay(2).offsets);
+    }
+
+    @Test
+    void clockStepBackIsNotWaitedOn() throws Exception {
+        writeRun("frames-20260105-090000-0000.seg", new long[][]{{1_000, 0}, {900, 10 * MS}, {1_100, 20 * MS}}, "a", "b", "c");
+
+        assertEquals(List.of(0L, 0L, 100 * MS), replay(1).offsets);
+    }
+
+    @Test
+    void zeroSpeedNeverWaits() throws Exception {
+        writeRun("frames-20260105-090000-0000.seg", new long[][]{{1_000, 0}, {61_000, 60_000 * MS}}, "a", "b");
+
+        assertEquals(List.of(0L, 0L), replay(0).offsets);
+    }
+
+    private record Replayed(List<String> messages, List<Long> offsets, KisReplayService.Result result) {}
+
+    private Replayed replay(double speed) throws Exception {
+        FakeClock clock = new FakeClock();
+        long start = clock.now;
+        List<String> messages = new ArrayList<>();
+        List<Long> offsets = new ArrayList<>();
+        KisReplayService.Result result = KisReplayService.replay(dir, speed, message -> {
+            messages.add(message);
+            offsets.add(clock.now - start);
+        }, clock);
+        return new Replayed(messages, offsets, result);
+    }
+
+    // 한 번의 실행분을 세그먼트 하나로 쓰고 정해진 이름으로 옮김 (이름 순 = 재생 순)
+    private void writeRun(String name, long[][] times, String... messages) throws IOException {
+        Path runDir = Files.createTempDirectory(runs, "run");
+        try (FrameJournalWriter writer = new FrameJournalWriter(runDir, 64 * 1024)) {
+            for (int i = 0; i < messages.length; i++) {
+                writer.append(times[i][0], times[i][1], messages[i]);
+            }
+        }
+        try (Stream<Path> files = Files.list(runDir)) {
+            Files.move(files.findFirst().orElseThrow(), dir.resolve(name));
+        }
+    }
+}
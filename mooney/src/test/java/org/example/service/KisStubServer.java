@@ -0,0 +1,167 @@
+package org.example.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * KIS 실시간 접속 대신 붙이는 최소 WebSocket 서버 (텍스트 프레임만).
+ * 받은 구독 요청은 received 에 쌓고, send 로 가장 최근 연결에 프레임을 보내고, drop 으로 연결을 끊는다.
+ */
+class KisStubServer implements AutoCloseable {
+
+    private static final String ACCEPT_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+
+    private final ServerSocket server;
+    private final Thread acceptor;
+    private final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private volatile Socket current;
+
+    KisStubServer() throws IOException {
+        server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        acceptor = new Thread(this::acceptLoop, "kis-stub-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    String url() {
+        return "ws://127.0.0.1:" + server.getLocalPort() + "/websocket";
+    }
+
+    int connections() {
+        return connections.get();
+    }
+
+    // 클라이언트가 보낸 다음 텍스트 메시지 (시간 안에 없으면 null)
+    String nextMessage(long timeoutMs) throws InterruptedException {
+        return received.poll(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    synchronized void send(String text) throws IOException {
+        writeFrame(current.getOutputStream(), 0x1, text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // 닫기 핸드셰이크 없이 끊음 (네트워크 단절)
+    void drop() throws IOException {
+        current.close();
+    }
+
+    private void acceptLoop() {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                Thread reader = new Thread(() -> serve(socket), "kis-stub-conn");
+                reader.setDaemon(true);
+                reader.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            handshake(in, socket.getOutputStream());
+            current = socket;
+            connections.incrementAndGet();
+            while (true) {
+                int b0 = in.read();
+                if (b0 < 0) return;
+                int opcode = b0 & 0x0F;
+                int b1 = in.readUnsignedByte();
+                long length = b1 & 0x7F;
+                if (length == 126) length = in.readUnsignedShort();
+                else if (length == 127) length = in.readLong();
+                byte[] mask = new byte[4];
+                if ((b1 & 0x80) != 0) in.readFully(mask);
+                byte[] payload = new byte[(int) length];
+                in.readFully(payload);
+                for (int i = 0; i < payload.length; i++) payload[i] ^= mask[i % 4];
+
+                switch (opcode) {
+                    case 0x1 -> received.add(new String(payload, StandardCharsets.UTF_8));
+                    case 0x8 -> {
+                        synchronized (this) {
+                            writeFrame(socket.getOutputStream(), 0x8, payload);
+                        }
+                        return;
+                    }
+                    case 0x9 -> {
+                        synchronized (this) {
+                            writeFrame(socket.getOutputStream(), 0xA, payload);
+                        }
+                    }
+                    default -> { }
+                }
+            }
+        } catch (Exception e) {
+            // 연결 종료
+        }
+    }
+
+    private static void handshake(InputStream in, OutputStream out) throws Exception {
+        String key = null;
+        String line;
+        while (!(line = readLine(in)).isEmpty()) {
+            int colon = line.indexOf(':');
+            if (colon > 0 && line.substring(0, colon).trim().equalsIgnoreCase("Sec-WebSocket-Key")) {
+                key = line.substring(colon + 1).trim();
+            }
+        }
+        byte[] digest = MessageDigest.getInstance("SHA-1").digest((key + ACCEPT_GUID).getBytes(StandardCharsets.US_ASCII));
+        String response = "HTTP/1.1 101 Switching Protocols\r\n"
+                + "Upgrade: websocket\r\n"
+                + "Connection: Upgrade\r\n"
+                + "Sec-WebSocket-Accept: " + Base64.getEncoder().encodeToString(digest) + "\r\n\r\n";
+        out.write(response.getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int c;
+        while ((c = in.read()) >= 0 && c != '\n') {
+            if (c != '\r') line.write(c);
+        }
+        if (c < 0) throw new IOException("핸드셰이크 중 연결 종료");
+        return line.toString(StandardCharsets.US_ASCII);
+    }
+
+    // 서버 → 클라이언트 프레임은 마스킹하지 않음
+    private static void writeFrame(OutputStream out, int opcode, byte[] payload) throws IOException {
+        out.write(0x80 | opcode);
+        if (payload.length < 126) {
+            out.write(payload.length);
+        } else if (payload.length < 65536) {
+            out.write(126);
+            out.write(payload.length >>> 8);
+            out.write(payload.length & 0xFF);
+        } else {
+            out.write(127);
+            for (int shift = 56; shift >= 0; shift -= 8) out.write((int) ((long) payload.length >>> shift) & 0xFF);
+        }
+        out.write(payload);
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+        Socket s = current;
+        if (s != null) s.close();
+    }
+}
@@ -0,0 +1,81 @@
+package org.example.service;
+
+import org.example.entity.Stock;
+import org.example.repository.StockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StockCacheTest {
+
+    private final StockRepository stockRepository = mock(StockRepository.class);
+    private final StockCache cache = new StockCache(stockRepository);
+
+    @BeforeEach
+    void setUp() {
+        when(stockRepository.findAll()).thenReturn(List.of(
+                stock(1, "005930", "삼성전자"),
+                stock(2, "000660", "SK하이닉스"),
+                stock(3, "0126Z0", "영문 포함 코드")));
+        cache.refresh();
+    }
+
+    private static Stock stock(long id, String code, String name) {
+        return Stock.builder().stockId(id).stockCode(code).stockName(name).build();
+    }
+
+    @Test
+    void looksUpIdAndName() {
+        assertEquals(3, cache.size());
+        assertEquals(1, cache.idOf("005930"));
+        assertEquals("SK하이닉스", cache.nameOf("000660"));
+        assertEquals(3, cache.idOf("0126Z0"));
+        assertTrue(cache.contains("005930"));
+    }
+
+    @Test
+    void unknownOrMalformedCodesMiss() {
+        assertEquals(-1, cache.idOf("999999"));
+        assertNull(cache.nameOf("999999"));
+        assertFalse(cache.contains("0126z0"));
+        assertFalse(cache.contains("05930"));
+        assertFalse(cache.contains("0059300"));
+        assertFalse(cache.contains(""));
+        assertFalse(cache.contains(null));
+    }
+
+    @Test
+    void findsEveryCodeInLargeIndex() {
+        List<Stock> stocks = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            stocks.add(stock(i + 1, String.format("%06d", i * 7), "종목" + i));
+        }
+        when(stockRepository.findAll()).thenReturn(stocks);
+        cache.refresh();
+
+        assertEquals(5000, cache.size());
+        for (int i = 0; i < 5000; i++) {
+            assertEquals(i + 1, cache.idOf(String.format("%06d", i * 7)));
+        }
+        assertEquals(-1, cache.idOf(String.format("%06d", 5000 * 7)));
+    }
+
+    @Test
+    void refreshReplacesIndex() {
+        when(stockRepository.findAll()).thenReturn(List.of(stock(9, "035720", "카카오")));
+        cache.refresh();
+
+        assertEquals(1, cache.size());
+        assertFalse(cache.contains("005930"));
+        assertEquals(9, cache.idOf("035720"));
+    }
+}
@@ -0,0 +1,125 @@
+package org.example.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.TradeWebSocketHandler;
+import org.example.matching.MatchingEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 로컬 스텁 서버에 붙여 본 KIS 연결: 구독 요청 형식, 틱 전달, 끊긴 뒤 재연결/재구독, 해지.
+ */
+class StockWebSocketClientTest {
+
+    private static final long WAIT_MS = 5000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ApprovalKeyService approvalKeyService = mock(ApprovalKeyService.class);
+    private final TradeWebSocketHandler tradeWebSocketHandler = mock(TradeWebSocketHandler.class);
+    private final MatchingEngine matchingEngine = mock(MatchingEngine.class);
+    private final CandleService candleService = mock(CandleService.class);
+
+    private KisStubServer server;
+    private KisSubscriptionManager subscriptionManager;
+    private StockWebSocketClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(approvalKeyService.getApprovalKey()).thenReturn("test-key");
+        server = new KisStubServer();
+
+        subscriptionManager = new KisSubscriptionManager();
+        ReflectionTestUtils.setField(subscriptionManager, "unsubscribeDelayMs", 0L);
+        ReflectionTestUtils.setField(subscriptionManager, "pinnedSymbols", new String[]{"005930"});
+        subscriptionManager.start();
+
+        client = new StockWebSocketClient(approvalKeyService, tradeWebSocketHandler, matchingEngine, subscriptionManager,
+                candleService, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(client, "websocketUrl", server.url());
+        ReflectionTestUtils.setField(client, "maxSessions", 1);
+        ReflectionTestUtils.setField(client, "maxSubscriptionsPerSession", 40);
+        ReflectionTestUtils.setField(client, "initialReconnectDelayMs", 50L);
+        ReflectionTestUtils.setField(client, "maxReconnectDelayMs", 200L);
+        ReflectionTestUtils.setField(client, "liveEnabled", true);
+        ReflectionTestUtils.setField(client, "recorderEnabled", false);
+        ReflectionTestUtils.setField(client, "tickLogSample", 1000L);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        client.shutdown();
+        subscriptionManager.stop();
+        server.close();
+    }
+
+    @Test
+    void subscribesDeliversTicksAndResubscribesAfterReconnect() throws Exception {
+        client.init();
+
+        // 고정 종목 구독
+        assertRequest(nextRequest(), "1", "005930");
+
+        // 호가창에 주문이 걸린 종목 구독
+        subscriptionManager.onSymbolActive("000660");
+        assertRequest(nextRequest(), "1", "000660");
+
+        // 평문 체결 프레임 → 하위 단계로 전달
+        server.send("0|H0STCNT0|001|" + record("005930", "090001", "70100", "15"));
+        verify(tradeWebSocketHandler, timeout(WAIT_MS)).sendTrade("005930", 70100);
+        verify(candleService, timeout(WAIT_MS)).onTick("005930", 90001, 70100L, 15L);
+
+        // 끊기면 키를 새로 받아 재연결하고 배정된 종목을 모두 다시 구독
+        server.drop();
+        Set<String> resubscribed = new HashSet<>();
+        for (int i = 0; i < 2; i++) {
+            JsonNode request = nextRequest();
+            assertEquals("1", request.path("header").path("tr_type").asText());
+            resubscribed.add(request.path("body").path("input").path("tr_key").asText());
+        }
+        assertEquals(Set.of("005930", "000660"), resubscribed);
+        assertEquals(2, server.connections());
+        verify(approvalKeyService, timeout(WAIT_MS)).invalidate();
+
+        // 마지막 주문이 빠진 종목은 해지 (고정 종목은 유지)
+        subscriptionManager.onSymbolIdle("000660");
+        assertRequest(nextRequest(), "2", "000660");
+    }
+
+    private JsonNode nextRequest() throws Exception {
+        String message = server.nextMessage(WAIT_MS);
+        assertNotNull(message, "구독 요청이 오지 않음");
+        return objectMapper.readTree(message);
+    }
+
+    private static void assertRequest(JsonNode request, String trType, String stockCode) {
+        assertEquals("test-key", request.path("header").path("approval_key").asText());
+        assertEquals(trType, request.path("header").path("tr_type").asText());
+        assertEquals("H0STCNT0", request.path("body").path("input").path("tr_id").asText());
+        assertEquals(stockCode, request.path("body").path("input").path("tr_key").asText());
+    }
+
+    private static String record(String code, String time, String price, String volume) {
+        String[] f = new String[46];
+        Arrays.fill(f, "0");
+        f[0] = code;
+        f[1] = time;
+        f[2] = price;
+        f[12] = volume;
+        return String.join("^", f);
+    }
+}